@@ -0,0 +1,27 @@
+package org.bookApi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the bulk book import ({@code POST /api/books/_upload}).
+ *
+ * @param chunkSize           number of books committed together in one transaction
+ * @param parallelWorkers     number of chunks persisted concurrently by parallel imports
+ * @param maxConcurrentJobs   number of asynchronous imports running at the same time
+ * @param queueCapacity       number of asynchronous imports waiting for a free slot before new ones are rejected
+ * @param jobTtl              how long a finished asynchronous import stays available for polling
+ * @param maxReportedFailures number of failed books listed in the status of an asynchronous import
+ */
+@ConfigurationProperties(prefix = "book.import")
+public record BookImportProperties(
+        @DefaultValue("500") int chunkSize,
+        @DefaultValue("4") int parallelWorkers,
+        @DefaultValue("2") int maxConcurrentJobs,
+        @DefaultValue("10") int queueCapacity,
+        @DefaultValue("1h") Duration jobTtl,
+        @DefaultValue("100") int maxReportedFailures
+) {
+}
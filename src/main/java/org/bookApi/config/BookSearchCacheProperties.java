@@ -0,0 +1,19 @@
+package org.bookApi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the cache of book search pages ({@code POST /api/books/search}).
+ *
+ * @param maxEntries number of pages kept, least recently used ones are dropped first; {@code 0} disables the cache
+ * @param ttl        how long a page is served from the cache at most
+ */
+@ConfigurationProperties(prefix = "book.search-cache")
+public record BookSearchCacheProperties(
+        @DefaultValue("1000") int maxEntries,
+        @DefaultValue("5m") Duration ttl
+) {
+}
@@ -0,0 +1,55 @@
+package org.bookApi.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.text.Collator;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * The database behind the data source, for the statements written natively for PostgreSQL with a variant for H2.
+ * Read once from the connection metadata at startup.
+ */
+@Component
+public class DatabaseDialect {
+
+    private final boolean postgres;
+    private final Comparator<String> titleOrder;
+
+    public DatabaseDialect(DataSource dataSource) throws MetaDataAccessException {
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.postgres = "PostgreSQL".equals(product);
+        this.titleOrder = postgres
+                ? collationOrder(new JdbcTemplate(dataSource).queryForObject(
+                        "SELECT datcollate FROM pg_database WHERE datname = current_database()", String.class))
+                : Comparator.naturalOrder();
+    }
+
+    public boolean isPostgres() {
+        return postgres;
+    }
+
+    /**
+     * The order the database sorts titles in: binary on H2 and with the {@code C} collation, otherwise the order of
+     * the collation's locale. The JDK's rules for a locale can still differ from the operating system's ones
+     * PostgreSQL uses, on punctuation and spaces mostly.
+     */
+    public Comparator<String> titleOrder() {
+        return titleOrder;
+    }
+
+    private static Comparator<String> collationOrder(String collation) {
+        if (collation == null || collation.equals("C") || collation.startsWith("C.") || collation.equals("POSIX")) {
+            return Comparator.naturalOrder();
+        }
+        int encoding = collation.indexOf('.');
+        String locale = (encoding < 0 ? collation : collation.substring(0, encoding)).replace('_', '-');
+        Collator collator = Collator.getInstance(Locale.forLanguageTag(locale));
+        return collator::compare;
+    }
+}
@@ -11,12 +11,18 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.bookApi.dto.AuthorRequestDto;
 import org.bookApi.dto.AuthorResponseDto;
+import org.bookApi.dto.BatchResponseDto;
+import org.bookApi.dto.CursorPageDto;
 import org.bookApi.dto.PaginatedResponseDto;
 import org.bookApi.service.AuthorService;
+import org.bookApi.service.Versioned;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
+import java.util.List;
 
 
 @RestController
@@ -41,18 +47,54 @@ public class AuthorController {
         return authorService.getList(page, size);
     }
 
+    @Operation(summary = "Get authors by cursor",
+            description = "Returns authors sorted by name after the given cursor; pass an empty 'after' for the first page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved authors",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CursorPageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping(params = "after")
+    public CursorPageDto<AuthorResponseDto> getAllAfter(
+            @Parameter(description = "Cursor of the previous page, empty for the first page") @RequestParam String after,
+            @Parameter(description = "Page size, default 4") @RequestParam(defaultValue = "4") int size) {
+        log.info("Fetching authors after cursor '{}', size={}", after, size);
+        return authorService.getListAfter(after, size);
+    }
+
+    @Operation(summary = "Get authors by IDs",
+            description = "Returns the authors with the given IDs in request order, and the IDs without an author")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Authors found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BatchResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "Too many or empty IDs")
+    })
+    @GetMapping("/_batch")
+    public BatchResponseDto<AuthorResponseDto> getBatch(
+            @Parameter(description = "Comma separated author IDs, at most 500", required = true)
+            @RequestParam List<Long> ids) {
+        log.info("Fetching {} authors by id", ids.size());
+        return authorService.getBatch(ids);
+    }
+
     @Operation(summary = "Get an author by ID", description = "Returns a single author by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Author found",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = AuthorResponseDto.class))),
+            @ApiResponse(responseCode = "304", description = "Author not modified since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Author not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<AuthorResponseDto> getById(@PathVariable Long id) {
+    public ResponseEntity<AuthorResponseDto> getById(@PathVariable Long id, WebRequest request) {
         log.info("Fetching author with id {}", id);
-        AuthorResponseDto dto = authorService.getById(id);
-        return ResponseEntity.ok(dto);
+        Versioned<AuthorResponseDto> author = authorService.getVersioned(id);
+        if (request.checkNotModified(author.eTag())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(author.eTag()).body(author.body());
     }
 
     @Operation(summary = "Create a new author", description = "Creates a new author")
@@ -65,20 +107,45 @@ public class AuthorController {
                 .body(created);
     }
 
+    @Operation(summary = "Create or get authors by name",
+            description = "Returns the author of every distinct name, in request order, creating the missing ones")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Authors resolved"),
+            @ApiResponse(responseCode = "400", description = "A name is blank")
+    })
+    @PostMapping("/_resolve")
+    public List<AuthorResponseDto> resolve(@RequestBody List<String> names) {
+        log.info("Resolving {} author names", names.size());
+        return authorService.createOrReturnExisting(names);
+    }
+
     @Operation(summary = "Update an existing author", description = "Updates the author with the specified ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Author updated"),
+            @ApiResponse(responseCode = "404", description = "Author not found"),
+            @ApiResponse(responseCode = "412", description = "Author no longer matches the ETag in If-Match")
+    })
     @PutMapping("/{id}")
     public ResponseEntity<AuthorResponseDto> update(@PathVariable Long id,
-                                                    @Valid @RequestBody AuthorRequestDto dto) {
+                                                    @Valid @RequestBody AuthorRequestDto dto,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                    String ifMatch) {
         log.info("Updating author with id {}: {}", id, dto);
-        AuthorResponseDto updated = authorService.update(id, dto);
+        AuthorResponseDto updated = authorService.update(id, dto, ifMatch);
         return ResponseEntity.ok(updated);
     }
 
     @Operation(summary = "Delete an author", description = "Deletes the author with the specified ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Author deleted"),
+            @ApiResponse(responseCode = "404", description = "Author not found"),
+            @ApiResponse(responseCode = "412", description = "Author no longer matches the ETag in If-Match")
+    })
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
+    public ResponseEntity<Void> delete(@PathVariable Long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Deleting author with id {}", id);
-        authorService.delete(id);
+        authorService.delete(id, ifMatch);
         return ResponseEntity.noContent().build();
     }
 }
@@ -10,19 +10,40 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bookApi.dto.BatchResponseDto;
+import org.bookApi.dto.BookBulkUpdateDto;
 import org.bookApi.dto.BookRequestDto;
 import org.bookApi.dto.BookResponseDto;
+import org.bookApi.dto.BookSearchHitDto;
+import org.bookApi.dto.BulkResponseDto;
+import org.bookApi.dto.CursorPageDto;
+import org.bookApi.dto.FacetedResponseDto;
+import org.bookApi.dto.ImportErrorDto;
+import org.bookApi.dto.ImportJobDto;
+import org.bookApi.dto.ListResponseDto;
 import org.bookApi.dto.PaginatedResponseDto;
+import org.bookApi.dto.SliceResponseDto;
 import org.bookApi.dto.UploadResponseDto;
+import org.bookApi.importer.ImportMode;
+import org.bookApi.importer.ImportOptions;
+import org.bookApi.search.GenreFilter;
+import org.bookApi.service.BookBulkService;
+import org.bookApi.service.BookImportJobService;
+import org.bookApi.service.BookSearchService;
 import org.bookApi.service.BookService;
+import org.bookApi.service.Versioned;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.net.URI;
+import java.util.List;
 
 
 @CrossOrigin(origins = "http://localhost:3050")
@@ -33,13 +54,17 @@ import java.io.IOException;
 public class BookController {
 
     private final BookService bookService;
+    private final BookBulkService bookBulkService;
+    private final BookImportJobService bookImportJobService;
+    private final BookSearchService bookSearchService;
 
     @Operation(summary = "Create a new book", description = "Creates a new book with the provided details")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Book successfully created",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = BookResponseDto.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid input data")
+            @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "409", description = "Book with this title and author already exists")
     })
     @PostMapping
     public ResponseEntity<BookResponseDto> create(
@@ -50,18 +75,57 @@ public class BookController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
-    @Operation(summary = "Get all books", description = "Returns a list of all books in the system")
+    @Operation(summary = "Get all books",
+            description = "Returns a page of books. With total=false the page has a hasNext flag instead of the total "
+                    + "number of pages; with 'after' the books are sorted by title after the cursor, pass it empty for "
+                    + "the first page")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved list",
-                    content = @Content(mediaType = "application/json",
-                            array = @ArraySchema(schema = @Schema(implementation = BookResponseDto.class))))
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page",
+                    content = @Content(mediaType = "application/json", schema = @Schema(oneOf = {
+                            PaginatedResponseDto.class, SliceResponseDto.class, CursorPageDto.class}))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or unsupported combination of parameters")
     })
     @GetMapping
-    public PaginatedResponseDto<BookResponseDto> getAll(
-            @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "3") int size) {
-        log.info("Fetching books, page={}, size={}", page, size);
-        return bookService.getList(null, null, null, page, size);
+    public ListResponseDto<BookResponseDto> getAll(
+            @Parameter(description = "Page number, default 1; not with 'after'") @RequestParam(required = false) Integer page,
+            @Parameter(description = "Page size, default 3") @RequestParam(defaultValue = "3") int size,
+            @Parameter(description = "Whether to count the books, default true; not with 'after'") @RequestParam(required = false) Boolean total,
+            @Parameter(description = "Cursor of the previous page, empty for the first page") @RequestParam(required = false) String after) {
+        log.info("Fetching books, page={}, size={}, total={}, after={}", page, size, total, after);
+        return list(null, null, null, GenreFilter.NONE, page, size, total, after, false);
+    }
+
+    @Operation(summary = "Full-text search of books",
+            description = "Returns the books whose title, author name or genres match every word of the query, "
+                    + "most relevant first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching books",
+                    content = @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = BookSearchHitDto.class)))),
+            @ApiResponse(responseCode = "400", description = "Empty query or invalid limit")
+    })
+    @GetMapping("/_fulltext")
+    public List<BookSearchHitDto> fullTextSearch(
+            @Parameter(description = "Words to search for", required = true) @RequestParam String q,
+            @Parameter(description = "Maximum number of books, default 10") @RequestParam(defaultValue = "10") int limit) {
+        log.info("Full-text search for '{}', limit={}", q, limit);
+        return bookSearchService.search(q, limit);
+    }
+
+    @Operation(summary = "Get books by IDs",
+            description = "Returns the books with the given IDs in request order, and the IDs without a book")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Books found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BatchResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "Too many or empty IDs")
+    })
+    @GetMapping("/_batch")
+    public BatchResponseDto<BookResponseDto> getBatch(
+            @Parameter(description = "Comma separated book IDs, at most 500", required = true)
+            @RequestParam List<Long> ids) {
+        log.info("Fetching {} books by id", ids.size());
+        return bookService.getBatch(ids);
     }
 
     @Operation(summary = "Get a book by ID", description = "Returns a single book by its ID")
@@ -69,15 +133,22 @@ public class BookController {
             @ApiResponse(responseCode = "200", description = "Book found",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = BookResponseDto.class))),
+            @ApiResponse(responseCode = "304", description = "Book not modified since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Book not found")
     })
     @GetMapping("/{id}")
     public ResponseEntity<BookResponseDto> getById(
             @Parameter(description = "ID of the book to fetch", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            WebRequest request) {
         log.info("Fetching book with id: {}", id);
-        BookResponseDto dto = bookService.getById(id);
-        return ResponseEntity.ok(dto);
+        // Revalidation only reads the versions, without loading or serializing the book.
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(bookService.getETag(id))) {
+            return null;
+        }
+        Versioned<BookResponseDto> book = bookService.getVersioned(id);
+        return ResponseEntity.ok().eTag(book.eTag()).body(book.body());
     }
 
     @Operation(summary = "Update an existing book", description = "Updates a book with the specified ID")
@@ -86,49 +157,111 @@ public class BookController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = BookResponseDto.class))),
             @ApiResponse(responseCode = "404", description = "Book not found"),
-            @ApiResponse(responseCode = "400", description = "Invalid input data")
+            @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "409",
+                    description = "Book with this title and author already exists, or was modified concurrently"),
+            @ApiResponse(responseCode = "412", description = "Book no longer matches the ETag in If-Match")
     })
     @PutMapping("/{id}")
     public ResponseEntity<BookResponseDto> update(
             @Parameter(description = "ID of the book to update", required = true)
             @PathVariable Long id,
             @Parameter(description = "Updated book details", required = true)
-            @Valid @RequestBody BookRequestDto dto) {
+            @Valid @RequestBody BookRequestDto dto,
+            @Parameter(description = "ETag the book must still have")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Updating book with id {}: {}", id, dto);
-        BookResponseDto updated = bookService.update(id, dto);
+        BookResponseDto updated = bookService.update(id, dto, ifMatch);
         return ResponseEntity.ok(updated);
     }
 
     @Operation(summary = "Delete a book", description = "Deletes a book by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Book successfully deleted"),
-            @ApiResponse(responseCode = "404", description = "Book not found")
+            @ApiResponse(responseCode = "404", description = "Book not found"),
+            @ApiResponse(responseCode = "412", description = "Book no longer matches the ETag in If-Match")
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(
             @Parameter(description = "ID of the book to delete", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @Parameter(description = "ETag the book must still have")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Deleting book with id: {}", id);
-        bookService.delete(id);
+        bookService.delete(id, ifMatch);
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Search books with filters", description = "Searches for books using optional filters and pagination")
+    @Operation(summary = "Create many books",
+            description = "Validates every book and creates the valid ones together, reporting each item's outcome")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Search results",
+            @ApiResponse(responseCode = "200", description = "Outcome of every item",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BulkResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "More than 1000 items")
+    })
+    @PostMapping("/_bulk")
+    public BulkResponseDto createBulk(@RequestBody List<BookRequestDto> books) {
+        log.info("Creating {} books", books.size());
+        return bookBulkService.create(books);
+    }
+
+    @Operation(summary = "Update many books",
+            description = "Validates every book and updates the valid ones together, reporting each item's outcome")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Outcome of every item",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BulkResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "More than 1000 items")
+    })
+    @PutMapping("/_bulk")
+    public BulkResponseDto updateBulk(@RequestBody List<BookBulkUpdateDto> books) {
+        log.info("Updating {} books", books.size());
+        return bookBulkService.update(books);
+    }
+
+    @Operation(summary = "Delete many books",
+            description = "Deletes the books with the given IDs with one statement, reporting each item's outcome")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Outcome of every item",
                     content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = PaginatedResponseDto.class)))
+                            schema = @Schema(implementation = BulkResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "More than 1000 items")
+    })
+    @DeleteMapping("/_bulk")
+    public BulkResponseDto deleteBulk(@RequestBody List<Long> ids) {
+        log.info("Deleting {} books", ids.size());
+        return bookBulkService.delete(ids);
+    }
+
+    @Operation(summary = "Search books with filters",
+            description = "Searches for books using optional filters and pagination. With total=false the page has a "
+                    + "hasNext flag instead of the total number of pages, with facets=true it also counts the matching "
+                    + "books per genre and per year, and with 'after' the books are sorted by title after the cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search results",
+                    content = @Content(mediaType = "application/json", schema = @Schema(oneOf = {
+                            PaginatedResponseDto.class, SliceResponseDto.class, CursorPageDto.class,
+                            FacetedResponseDto.class}))),
+            @ApiResponse(responseCode = "400",
+                    description = "Invalid cursor, unknown genre match or unsupported combination of parameters")
     })
     @PostMapping("/search")
-    public PaginatedResponseDto<BookResponseDto> search(
+    public ListResponseDto<BookResponseDto> search(
             @Parameter(description = "Filter by author ID") @RequestParam(required = false) Long authorId,
             @Parameter(description = "Filter by book title") @RequestParam(required = false) String title,
             @Parameter(description = "Filter by year published") @RequestParam(required = false) Integer yearPublished,
-            @Parameter(description = "Page number, default 1") @RequestParam(defaultValue = "1") int page,
-            @Parameter(description = "Page size, default 3") @RequestParam(defaultValue = "3") int size) {
-        log.info("Searching books - authorId: {}, title: {}, year: {}, page: {}, size: {}",
-                authorId, title, yearPublished, page, size);
-        return bookService.getList(authorId, title, yearPublished, page, size);
+            @Parameter(description = "Filter by genre, may be repeated") @RequestParam(required = false) List<String> genre,
+            @Parameter(description = "Whether books need any (default) or all of the genres") @RequestParam(defaultValue = "any") String genreMatch,
+            @Parameter(description = "Page number, default 1; not with 'after'") @RequestParam(required = false) Integer page,
+            @Parameter(description = "Page size, default 3") @RequestParam(defaultValue = "3") int size,
+            @Parameter(description = "Whether to count the books, default true; not with 'after'") @RequestParam(required = false) Boolean total,
+            @Parameter(description = "Cursor of the previous page, empty for the first page") @RequestParam(required = false) String after,
+            @Parameter(description = "Whether to count the books per genre and year; not with 'after' or total=false") @RequestParam(defaultValue = "false") boolean facets) {
+        log.info("Searching books - authorId: {}, title: {}, year: {}, genres: {} ({}), page: {}, size: {}, total: {}, "
+                        + "after: {}, facets: {}",
+                authorId, title, yearPublished, genre, genreMatch, page, size, total, after, facets);
+        return list(authorId, title, yearPublished, GenreFilter.of(genre, genreMatch), page, size, total, after, facets);
     }
 
     @Operation(summary = "Generate CSV report for books", description = "Generates a CSV report with optional filters")
@@ -136,30 +269,104 @@ public class BookController {
             @ApiResponse(responseCode = "200", description = "CSV report generated")
     })
     @PostMapping("/_report")
-    public ResponseEntity<byte[]> report(
+    public ResponseEntity<StreamingResponseBody> report(
             @Parameter(description = "Filter by author ID") @RequestParam(required = false) Long authorId,
             @Parameter(description = "Filter by book title") @RequestParam(required = false) String title,
-            @Parameter(description = "Filter by year published") @RequestParam(required = false) Integer yearPublished) throws IOException {
+            @Parameter(description = "Filter by year published") @RequestParam(required = false) Integer yearPublished,
+            @Parameter(description = "Filter by genre, may be repeated") @RequestParam(required = false) List<String> genre,
+            @Parameter(description = "Whether books need any (default) or all of the genres") @RequestParam(defaultValue = "any") String genreMatch) throws IOException {
         log.info("Generating CSV report");
-        byte[] data = bookService.generateCsvReport(authorId, title, yearPublished);
+        GenreFilter genres = GenreFilter.of(genre, genreMatch);
+        StreamingResponseBody body = out -> bookService.writeCsvReport(authorId, title, yearPublished, genres, out);
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=books_report.csv")
                 .contentType(MediaType.TEXT_PLAIN)
-                .body(data);
+                .body(body);
     }
 
-    @Operation(summary = "Upload books from JSON file", description = "Uploads multiple books from a JSON file")
+    @Operation(summary = "Upload books from JSON file",
+            description = "Uploads multiple books from a JSON array, NDJSON (application/x-ndjson) or CSV report (text/csv) file")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Upload completed",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = UploadResponseDto.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid file format or content")
+            @ApiResponse(responseCode = "400",
+                    description = "Invalid file format or content; books imported before the error are counted",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ImportErrorDto.class)))
     })
     @PostMapping(value = "/_upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public UploadResponseDto upload(
-            @Parameter(description = "JSON file containing books", required = true)
-            @RequestPart("file") MultipartFile file) throws IOException {
+            @Parameter(description = "JSON, NDJSON or CSV file containing books", required = true)
+            @RequestPart("file") MultipartFile file,
+            @Parameter(description = "Persist chunks in parallel on the import worker pool")
+            @RequestParam(defaultValue = "false") boolean parallel,
+            @Parameter(description = "How books are written: jpa (batched inserts), copy (PostgreSQL COPY) or upsert (update books with the same title and author)")
+            @RequestParam(defaultValue = "jpa") String mode) throws IOException {
         log.info("Uploading books from file: {}", file.getOriginalFilename());
-        return bookService.uploadFromJson(file);
+        return bookService.uploadFromJson(file, new ImportOptions(parallel, ImportMode.fromParameter(mode)));
+    }
+
+    @Operation(summary = "Upload books from JSON file asynchronously",
+            description = "Queues the import and returns immediately; poll the returned job for progress")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Import queued",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ImportJobDto.class))),
+            @ApiResponse(responseCode = "503", description = "Too many imports are running or queued")
+    })
+    @PostMapping(value = "/_upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, params = "async=true")
+    public ResponseEntity<ImportJobDto> uploadAsync(
+            @Parameter(description = "JSON, NDJSON or CSV file containing books", required = true)
+            @RequestPart("file") MultipartFile file,
+            @Parameter(description = "Persist chunks in parallel on the import worker pool")
+            @RequestParam(defaultValue = "false") boolean parallel,
+            @Parameter(description = "How books are written: jpa (batched inserts), copy (PostgreSQL COPY) or upsert (update books with the same title and author)")
+            @RequestParam(defaultValue = "jpa") String mode) throws IOException {
+        log.info("Queuing import of books from file: {}", file.getOriginalFilename());
+        ImportJobDto job = bookImportJobService.submit(file, new ImportOptions(parallel, ImportMode.fromParameter(mode)));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/books/_upload/" + job.id()))
+                .body(job);
+    }
+
+    @Operation(summary = "Get the progress of an asynchronous upload", description = "Returns counts, throughput and failed books of an import job")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import job found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ImportJobDto.class))),
+            @ApiResponse(responseCode = "404", description = "Import job not found or expired")
+    })
+    @GetMapping("/_upload/{jobId}")
+    public ImportJobDto uploadStatus(
+            @Parameter(description = "ID of the import job", required = true)
+            @PathVariable String jobId) {
+        return bookImportJobService.getStatus(jobId);
+    }
+
+    /**
+     * Picks the kind of page from the parameters, so that parameters of different kinds are rejected rather than
+     * one of them being ignored.
+     */
+    private ListResponseDto<BookResponseDto> list(Long authorId, String title, Integer year, GenreFilter genres,
+                                                  Integer page, int size, Boolean total, String after,
+                                                  boolean facets) {
+        if (after != null) {
+            if (page != null || Boolean.TRUE.equals(total) || facets) {
+                throw new IllegalArgumentException(
+                        "'after' cannot be combined with 'page', 'total=true' or 'facets=true'");
+            }
+            return bookService.getListAfter(authorId, title, year, genres, after, size);
+        }
+        int pageNumber = page == null ? 1 : page;
+        if (facets) {
+            if (Boolean.FALSE.equals(total)) {
+                throw new IllegalArgumentException("'facets=true' cannot be combined with 'total=false'");
+            }
+            return bookService.getListWithFacets(authorId, title, year, genres, pageNumber, size);
+        }
+        return Boolean.FALSE.equals(total)
+                ? bookService.getSlice(authorId, title, year, genres, pageNumber, size)
+                : bookService.getList(authorId, title, year, genres, pageNumber, size);
     }
 }
@@ -0,0 +1,15 @@
+package org.bookApi.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Items looked up by a list of ids")
+public record BatchResponseDto<T>(
+        @Schema(description = "Items found, in the order of the requested ids")
+        List<T> list,
+
+        @Schema(description = "Requested ids without an item", example = "[7, 42]")
+        List<Long> missing
+) {
+}
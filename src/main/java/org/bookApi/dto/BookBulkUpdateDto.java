@@ -0,0 +1,35 @@
+package org.bookApi.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "DTO for updating one of many books at once")
+public record BookBulkUpdateDto(
+        @Schema(description = "ID of the book to update", example = "42", required = true)
+        @NotNull
+        Long id,
+
+        @Schema(description = "Title of the book", example = "Harry Potter and the Philosopher's Stone", required = true)
+        @NotBlank
+        String title,
+
+        @Schema(description = "ID of the author", example = "1", required = true)
+        @NotNull
+        Long authorId,
+
+        @Schema(description = "Year the book was published", example = "1997", required = true)
+        @NotNull
+        Integer yearPublished,
+
+        @Schema(description = "Genres of the book", example = "[\"Fantasy\", \"Adventure\"]")
+        List<String> genres
+) {
+
+    public BookRequestDto toRequest() {
+        return new BookRequestDto(title, authorId, yearPublished, genres);
+    }
+}
@@ -0,0 +1,13 @@
+package org.bookApi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Book found by a full-text search")
+public record BookSearchHitDto(
+        @Schema(description = "The matching book")
+        BookResponseDto book,
+
+        @Schema(description = "Relevance of the book, higher is better", example = "0.6")
+        double rank
+) {
+}
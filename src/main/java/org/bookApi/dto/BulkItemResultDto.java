@@ -0,0 +1,19 @@
+package org.bookApi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of one item of a bulk request")
+public record BulkItemResultDto(
+        @Schema(description = "Position of the item in the request, starting at 0", example = "0")
+        int index,
+
+        @Schema(description = "ID of the book, absent if it was not created", example = "42")
+        Long id,
+
+        @Schema(description = "HTTP status the item would have had as a single request", example = "201")
+        int status,
+
+        @Schema(description = "Why the item failed, absent on success", example = "Author not found")
+        String error
+) {
+}
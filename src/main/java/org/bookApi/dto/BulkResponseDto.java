@@ -0,0 +1,18 @@
+package org.bookApi.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of a bulk request, item by item")
+public record BulkResponseDto(
+        @Schema(description = "Outcome of every item, in request order")
+        List<BulkItemResultDto> items,
+
+        @Schema(description = "Number of items written", example = "98")
+        int succeeded,
+
+        @Schema(description = "Number of items rejected", example = "2")
+        int failed
+) {
+}
@@ -0,0 +1,16 @@
+package org.bookApi.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Page of a keyset (cursor) paginated list")
+public record CursorPageDto<T>(
+        @Schema(description = "List of items in the current page")
+        List<T> list,
+
+        @Schema(description = "Cursor of the next page, passed as 'after'; absent on the last page",
+                example = "NDI6VGhlIE1pZG5pZ2h0IExpYnJhcnk")
+        String nextCursor
+) implements ListResponseDto<T> {
+}
@@ -0,0 +1,24 @@
+package org.bookApi.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Paginated response with the number of matching items per genre and per year")
+public record FacetedResponseDto<T>(
+        @Schema(description = "List of items in the current page")
+        List<T> list,
+
+        @Schema(description = "Total number of pages available", example = "5")
+        int totalPages,
+
+        @Schema(description = "Number of matching books per genre in lower case, most frequent first",
+                example = "{\"fantasy\": 12, \"drama\": 3}")
+        Map<String, Long> genres,
+
+        @Schema(description = "Number of matching books per year published, oldest first",
+                example = "{\"1999\": 4, \"2001\": 11}")
+        Map<Integer, Long> years
+) implements ListResponseDto<T> {
+}
@@ -0,0 +1,13 @@
+package org.bookApi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Upload that stopped before the end of the file")
+public record ImportErrorDto(
+        @Schema(description = "Why the file could not be read further", example = "Invalid JSON file at line 12, column 5")
+        String error,
+
+        @Schema(description = "Books imported before the error; they stay imported")
+        UploadResponseDto imported
+) {
+}
@@ -0,0 +1,16 @@
+package org.bookApi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "A book that could not be imported")
+public record ImportFailureDto(
+        @Schema(description = "1-based position of the book in the uploaded file", example = "42")
+        long row,
+
+        @Schema(description = "Title of the book, if present", example = "Project Hail Mary")
+        String title,
+
+        @Schema(description = "Why the book was rejected", example = "Author not found")
+        String reason
+) {
+}
@@ -0,0 +1,50 @@
+package org.bookApi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.bookApi.importer.ImportJobStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+@Schema(description = "State of an asynchronous book import")
+public record ImportJobDto(
+        @Schema(description = "Identifier of the import job", example = "3f2c8a4e-5b1d-4c7e-9f0a-2d6b8e1c4a7f")
+        String id,
+
+        @Schema(description = "Current status of the job", example = "RUNNING")
+        ImportJobStatus status,
+
+        @Schema(description = "Number of books processed so far", example = "12000")
+        int processedCount,
+
+        @Schema(description = "Number of successfully imported books", example = "11990")
+        int successCount,
+
+        @Schema(description = "Number of failed books", example = "10")
+        int failedCount,
+
+        @Schema(description = "Number of books that were newly created", example = "11000")
+        int insertedCount,
+
+        @Schema(description = "Number of existing books that were changed, only in upsert mode", example = "900")
+        int updatedCount,
+
+        @Schema(description = "Number of existing books left as they were, only in upsert mode", example = "90")
+        int unchangedCount,
+
+        @Schema(description = "Average number of processed books per second", example = "8500.0")
+        double rowsPerSecond,
+
+        @Schema(description = "When the job started running")
+        Instant startedAt,
+
+        @Schema(description = "When the job finished")
+        Instant finishedAt,
+
+        @Schema(description = "Reason the whole job failed", example = "Invalid JSON file")
+        String error,
+
+        @Schema(description = "Failed books, capped at book.import.max-reported-failures")
+        List<ImportFailureDto> failures
+) {
+}
@@ -0,0 +1,11 @@
+package org.bookApi.dto;
+
+import java.util.List;
+
+/**
+ * One page of a list, whichever way it was paginated.
+ */
+public interface ListResponseDto<T> {
+
+    List<T> list();
+}
@@ -11,5 +11,5 @@ public record PaginatedResponseDto<T>(
 
         @Schema(description = "Total number of pages available", example = "5")
         int totalPages
-) {
+) implements ListResponseDto<T> {
 }
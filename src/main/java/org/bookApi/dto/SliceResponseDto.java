@@ -0,0 +1,15 @@
+package org.bookApi.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Page of a list that is not counted")
+public record SliceResponseDto<T>(
+        @Schema(description = "List of items in the current page")
+        List<T> list,
+
+        @Schema(description = "Whether there is a next page", example = "true")
+        boolean hasNext
+) implements ListResponseDto<T> {
+}
@@ -8,6 +8,15 @@ public record UploadResponseDto(
         int successCount,
 
         @Schema(description = "Number of failed items", example = "2")
-        int failedCount
+        int failedCount,
+
+        @Schema(description = "Number of books that were newly created", example = "7")
+        int insertedCount,
+
+        @Schema(description = "Number of existing books that were changed, only in upsert mode", example = "2")
+        int updatedCount,
+
+        @Schema(description = "Number of existing books left as they were, only in upsert mode", example = "1")
+        int unchangedCount
 ) {
 }
@@ -1,27 +1,48 @@
 package org.bookApi.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.bookApi.search.BookIndexUpdater;
+import org.bookApi.service.BookCountInvalidator;
+import org.bookApi.service.BookSearchCacheInvalidator;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.Locale;
 
 @Entity
-@Table(name = "books")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners({BookCountInvalidator.class, BookSearchCacheInvalidator.class, BookIndexUpdater.class})
+@Table(name = "books", uniqueConstraints = @UniqueConstraint(columnNames = {"title_key", "author_id"}))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -29,7 +50,8 @@ import java.util.List;
 @Builder
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -42,7 +64,55 @@ public class Book {
     private int yearPublished;
 
     @ElementCollection
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @CollectionTable(name = "book_genres", joinColumns = @JoinColumn(name = "book_id"))
     @Column(name = "genre")
     private List<String> genres;
+
+    /** Normalized title, unique together with the author. */
+    @Column(name = "title_key", nullable = false)
+    private String titleKey;
+
+    /** Hash of title, year and genres, used by upsert imports to skip unchanged books. */
+    @Column(name = "content_hash")
+    private Long contentHash;
+
+    /** Incremented on every write; the ETag of the book combines it with the version of the author. */
+    @Version
+    private Long version;
+
+    /**
+     * Recomputes {@link #titleKey} and {@link #contentHash}. Runs automatically before the book is written, but has
+     * to be called explicitly when only the genres changed, since that does not make the book itself dirty.
+     */
+    @PrePersist
+    @PreUpdate
+    public void refreshDerivedColumns() {
+        titleKey = titleKey(title);
+        contentHash = contentHash(title, yearPublished, genres);
+    }
+
+    public static String titleKey(String title) {
+        return title == null ? null : title.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    public static long contentHash(String title, int yearPublished, List<String> genres) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(String.valueOf(title).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(Integer.toString(yearPublished).getBytes(StandardCharsets.UTF_8));
+        if (genres != null) {
+            for (String genre : genres) {
+                digest.update((byte) 0);
+                digest.update(String.valueOf(genre).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
 }
\ No newline at end of file
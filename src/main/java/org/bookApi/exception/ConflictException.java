@@ -0,0 +1,8 @@
+package org.bookApi.exception;
+
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,8 @@
 package org.bookApi.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.bookApi.dto.ImportErrorDto;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -8,6 +10,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -20,6 +23,31 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<?> handlePreconditionFailed(PreconditionFailedException ex, WebRequest request) {
+        log.error("Precondition failed: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<?> handleConflict(ConflictException ex, WebRequest request) {
+        log.error("Conflict: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleConcurrentWrite(OptimisticLockingFailureException ex, WebRequest request) {
+        log.error("Concurrent write: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("The resource was modified concurrently, try again");
+    }
+
+    @ExceptionHandler(ImportFailedException.class)
+    public ResponseEntity<?> handleImportFailed(ImportFailedException ex, WebRequest request) {
+        log.error("Import failed: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ImportErrorDto(ex.getMessage(), ex.getProgress().toResponse()));
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<?> handleBadRequest(IllegalArgumentException ex, WebRequest request) {
         log.error("Bad request: {}", ex.getMessage());
@@ -37,6 +65,12 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
     }
 
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<?> handleRejected(RejectedExecutionException ex, WebRequest request) {
+        log.error("Rejected background task: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Too many imports in progress, try again later");
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handleAll(Exception ex, WebRequest request) {
         log.error("Unexpected error occurred", ex);
@@ -0,0 +1,21 @@
+package org.bookApi.exception;
+
+import org.bookApi.importer.ImportProgress;
+
+/**
+ * An upload that could not be read to the end. The chunks before the failure stay imported and are counted in
+ * {@link #getProgress()}.
+ */
+public class ImportFailedException extends RuntimeException {
+
+    private final transient ImportProgress progress;
+
+    public ImportFailedException(String message, ImportProgress progress) {
+        super(message);
+        this.progress = progress;
+    }
+
+    public ImportProgress getProgress() {
+        return progress;
+    }
+}
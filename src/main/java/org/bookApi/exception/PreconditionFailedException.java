@@ -0,0 +1,8 @@
+package org.bookApi.exception;
+
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,99 @@
+package org.bookApi.importer;
+
+import org.bookApi.entity.Author;
+
+import java.util.Arrays;
+
+/**
+ * Authors resolved during a single import, keyed by their primitive id.
+ * <p>
+ * Ids that were looked up but do not exist are remembered as well, so rows
+ * referencing an unknown author can be rejected without another query.
+ * Backed by an open-addressing table with linear probing; not thread-safe.
+ */
+public class AuthorCache {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final Author MISSING = new Author();
+
+    private long[] keys;
+    private Author[] values;
+    private int size;
+
+    public AuthorCache() {
+        this(64);
+    }
+
+    public AuthorCache(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new Author[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * @return {@code true} if the id has already been resolved, whether or not the author exists
+     */
+    public boolean isResolved(long id) {
+        return keys[indexOf(id)] == id;
+    }
+
+    /**
+     * @return the author with the given id, or {@code null} if it is unknown or does not exist
+     */
+    public Author get(long id) {
+        int index = indexOf(id);
+        return keys[index] == id && values[index] != MISSING ? values[index] : null;
+    }
+
+    public void put(Author author) {
+        store(author.getId(), author);
+    }
+
+    public void putMissing(long id) {
+        store(id, MISSING);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void store(long id, Author value) {
+        if (id == EMPTY) {
+            throw new IllegalArgumentException("Unsupported author id " + id);
+        }
+        int index = indexOf(id);
+        if (keys[index] != id) {
+            keys[index] = id;
+            size++;
+        }
+        values[index] = value;
+        if (size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    private int indexOf(long id) {
+        int mask = keys.length - 1;
+        int index = Long.hashCode(id * 0x9E3779B97F4A7C15L) & mask;
+        while (keys[index] != EMPTY && keys[index] != id) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Author[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Author[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
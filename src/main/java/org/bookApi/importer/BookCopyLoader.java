@@ -0,0 +1,184 @@
+package org.bookApi.importer;
+
+import org.bookApi.dto.BookRequestDto;
+import org.bookApi.entity.Book;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Loads books into PostgreSQL with {@code COPY}.
+ * <p>
+ * Rows are streamed into a session-local staging table that is emptied on commit, then moved into
+ * {@code books} and {@code book_genres} by a single statement. Ids are reserved from {@code books_seq}
+ * the way Hibernate's pooled-lo optimizer does, so they never collide with ids handed out by JPA.
+ * Must run inside the transaction of the given connection.
+ */
+public class BookCopyLoader {
+
+    /** Must match the {@code allocationSize} of the book id generator. */
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE IF NOT EXISTS books_import_staging (
+                id BIGINT NOT NULL,
+                title VARCHAR(255),
+                year_published INT,
+                author_id BIGINT,
+                title_key VARCHAR(255),
+                content_hash BIGINT,
+                genres TEXT[]
+            ) ON COMMIT DELETE ROWS""";
+
+    private static final String COPY_STAGING = """
+            COPY books_import_staging (id, title, year_published, author_id, title_key, content_hash, genres)
+            FROM STDIN WITH (FORMAT csv)""";
+
+    private static final String MERGE_STAGING = """
+            WITH inserted AS (
+                INSERT INTO books (id, title, year_published, author_id, title_key, content_hash)
+                SELECT id, title, year_published, author_id, title_key, content_hash FROM books_import_staging
+                RETURNING id
+            )
+            INSERT INTO book_genres (book_id, genre)
+            SELECT s.id, g.genre
+            FROM books_import_staging s
+            JOIN inserted i ON i.id = s.id
+            CROSS JOIN LATERAL unnest(s.genres) AS g(genre)""";
+
+    private static final String RESERVE_IDS = "SELECT nextval('books_seq') FROM generate_series(1, ?)";
+
+    private final Connection connection;
+
+    public BookCopyLoader(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Inserts the books, all or nothing. Every book must reference an existing author.
+     *
+     * @throws IllegalArgumentException if a book has no title or no year, which {@code books} cannot hold
+     */
+    public void load(List<BookRequestDto> books) throws SQLException {
+        if (books.isEmpty()) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING);
+        }
+
+        IdBlock ids = new IdBlock(reserveIdBlocks(books.size()));
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+        try {
+            StringBuilder line = new StringBuilder(256);
+            for (BookRequestDto book : books) {
+                if (book.title() == null || book.yearPublished() == null) {
+                    throw new IllegalArgumentException("Book without title or year cannot be copied");
+                }
+                line.setLength(0);
+                line.append(ids.next()).append(',');
+                appendQuoted(line, book.title());
+                line.append(',').append(book.yearPublished())
+                        .append(',').append(book.authorId())
+                        .append(',');
+                appendQuoted(line, Book.titleKey(book.title()));
+                line.append(',').append(Book.contentHash(book.title(), book.yearPublished(), book.genres()))
+                        .append(',');
+                appendQuoted(line, toArrayLiteral(book.genres()));
+                line.append('\n');
+                byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+                copy.writeToCopy(bytes, 0, bytes.length);
+            }
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(MERGE_STAGING);
+        }
+    }
+
+    private long[] reserveIdBlocks(int count) throws SQLException {
+        int blocks = (count + ID_ALLOCATION_SIZE - 1) / ID_ALLOCATION_SIZE;
+        long[] lows = new long[blocks];
+        try (PreparedStatement statement = connection.prepareStatement(RESERVE_IDS)) {
+            statement.setInt(1, blocks);
+            try (ResultSet rs = statement.executeQuery()) {
+                for (int i = 0; rs.next(); i++) {
+                    lows[i] = rs.getLong(1);
+                }
+            }
+        }
+        return lows;
+    }
+
+    private static String toArrayLiteral(List<String> genres) {
+        StringBuilder literal = new StringBuilder("{");
+        if (genres != null) {
+            for (int i = 0; i < genres.size(); i++) {
+                if (i > 0) {
+                    literal.append(',');
+                }
+                String genre = genres.get(i);
+                if (genre == null) {
+                    literal.append("NULL");
+                    continue;
+                }
+                literal.append('"');
+                for (int c = 0; c < genre.length(); c++) {
+                    char ch = genre.charAt(c);
+                    if (ch == '"' || ch == '\\') {
+                        literal.append('\\');
+                    }
+                    literal.append(ch);
+                }
+                literal.append('"');
+            }
+        }
+        return literal.append('}').toString();
+    }
+
+    private static void appendQuoted(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"') {
+                line.append('"');
+            }
+            line.append(ch);
+        }
+        line.append('"');
+    }
+
+    /**
+     * Hands out ids from blocks of {@link #ID_ALLOCATION_SIZE} consecutive values starting at each reserved low value.
+     */
+    private static final class IdBlock {
+
+        private final long[] lows;
+        private int block;
+        private int offset;
+
+        private IdBlock(long[] lows) {
+            this.lows = lows;
+        }
+
+        private long next() {
+            if (offset == ID_ALLOCATION_SIZE) {
+                block++;
+                offset = 0;
+            }
+            return lows[block] + offset++;
+        }
+    }
+}
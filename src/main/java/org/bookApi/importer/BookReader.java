@@ -0,0 +1,15 @@
+package org.bookApi.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads the books of an upload one at a time.
+ */
+public interface BookReader extends Closeable {
+
+    /**
+     * @return the next book of the input, or {@code null} once the input is exhausted
+     */
+    ImportRecord next() throws IOException;
+}
@@ -0,0 +1,111 @@
+package org.bookApi.importer;
+
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+import org.bookApi.dto.BookRequestDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads books from CSV in the layout written by the book report, one line at a time.
+ * <p>
+ * Columns are matched by their header, so their order does not matter and the {@code ID} column is ignored.
+ * The author is referenced by name, genres are separated by {@code |}.
+ */
+public class CsvBookReader implements BookReader {
+
+    private static final String TITLE = "Title";
+    private static final String AUTHOR = "Author";
+    private static final String YEAR = "Year Published";
+    private static final String GENRES = "Genres";
+
+    private final CSVReader reader;
+    private final int titleColumn;
+    private final int authorColumn;
+    private final int yearColumn;
+    private final int genresColumn;
+
+    public CsvBookReader(InputStream in) throws IOException {
+        this.reader = new CSVReaderBuilder(new InputStreamReader(in, StandardCharsets.UTF_8)).build();
+        String[] headerLine = readLine();
+        if (headerLine == null) {
+            throw new IllegalArgumentException("CSV file is empty");
+        }
+        List<String> header = Arrays.asList(headerLine);
+        this.titleColumn = requiredColumn(header, TITLE);
+        this.authorColumn = requiredColumn(header, AUTHOR);
+        this.yearColumn = header.indexOf(YEAR);
+        this.genresColumn = header.indexOf(GENRES);
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        String[] line = readLine();
+        if (line == null) {
+            return null;
+        }
+        BookRequestDto book = new BookRequestDto(
+                blankToNull(column(line, titleColumn)),
+                null,
+                parseYear(column(line, yearColumn)),
+                parseGenres(column(line, genresColumn))
+        );
+        return new ImportRecord(book, blankToNull(column(line, authorColumn)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String[] readLine() throws IOException {
+        try {
+            return reader.readNext();
+        } catch (CsvValidationException e) {
+            throw new IllegalArgumentException("Invalid CSV file at line " + e.getLineNumber());
+        }
+    }
+
+    private int requiredColumn(List<String> header, String name) {
+        int index = header.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("CSV file has no '" + name + "' column");
+        }
+        return index;
+    }
+
+    private String column(String[] line, int index) {
+        return index >= 0 && index < line.length ? line[index] : null;
+    }
+
+    /**
+     * @return the year, or {@code null} if it is missing or not a number, which fails the book rather than the file
+     */
+    private Integer parseYear(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private List<String> parseGenres(String value) {
+        if (value == null || value.isEmpty()) {
+            return List.of();
+        }
+        return List.of(value.split("\\|"));
+    }
+
+    private String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,59 @@
+package org.bookApi.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * Input formats accepted by the book import, detected from the content type of the uploaded file.
+ */
+public enum ImportFormat {
+
+    /** A single JSON array of books. */
+    JSON("application/json", ".json"),
+
+    /** One JSON book object per line. */
+    NDJSON("application/x-ndjson", ".ndjson"),
+
+    /** The layout of the CSV book report. */
+    CSV("text/csv", ".csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ImportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public BookReader open(ObjectMapper objectMapper, InputStream in) throws IOException {
+        return switch (this) {
+            case JSON -> new JsonBookReader(objectMapper, in);
+            case NDJSON -> new NdjsonBookReader(objectMapper, in);
+            case CSV -> new CsvBookReader(in);
+        };
+    }
+
+    /**
+     * Detects the format from the content type of the upload, falling back to the file extension when the type is
+     * not one of the formats, as browsers send {@code text/plain} or {@code application/vnd.ms-excel} for a
+     * {@code .csv}, and to {@link #JSON} when neither is known; a file that is not JSON then fails to parse.
+     */
+    public static ImportFormat detect(String contentType, String filename) {
+        String type = contentType == null ? "" : contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        for (ImportFormat format : values()) {
+            if (format.contentType.equals(type)) {
+                return format;
+            }
+        }
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        for (ImportFormat format : values()) {
+            if (name.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        return JSON;
+    }
+}
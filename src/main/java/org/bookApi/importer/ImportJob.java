@@ -0,0 +1,61 @@
+package org.bookApi.importer;
+
+import lombok.Getter;
+import org.bookApi.dto.ImportJobDto;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * An import running in the background, polled through {@code GET /api/books/_upload/{jobId}}.
+ */
+@Getter
+public class ImportJob {
+
+    private final String id;
+    private final ImportProgress progress;
+    private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public ImportJob(String id, int maxReportedFailures) {
+        this.id = id;
+        this.progress = new ImportProgress(maxReportedFailures);
+    }
+
+    public void start() {
+        startedAt = Instant.now();
+        status = ImportJobStatus.RUNNING;
+    }
+
+    public void complete() {
+        finishedAt = Instant.now();
+        status = ImportJobStatus.COMPLETED;
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        finishedAt = Instant.now();
+        status = ImportJobStatus.FAILED;
+    }
+
+    public boolean isExpired(Instant now, Duration ttl) {
+        Instant finished = finishedAt;
+        return finished != null && finished.plus(ttl).isBefore(now);
+    }
+
+    public ImportJobDto toDto() {
+        Instant started = startedAt;
+        Instant finished = finishedAt;
+        double rowsPerSecond = 0;
+        if (started != null) {
+            long millis = Duration.between(started, finished != null ? finished : Instant.now()).toMillis();
+            rowsPerSecond = progress.processedCount() * 1000.0 / Math.max(millis, 1);
+        }
+        return new ImportJobDto(id, status,
+                progress.processedCount(), progress.successCount(), progress.failedCount(),
+                progress.insertedCount(), progress.updatedCount(), progress.unchangedCount(),
+                rowsPerSecond, started, finished, error, progress.failures());
+    }
+}
@@ -0,0 +1,8 @@
+package org.bookApi.importer;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
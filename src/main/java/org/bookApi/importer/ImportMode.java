@@ -0,0 +1,29 @@
+package org.bookApi.importer;
+
+import java.util.Locale;
+
+/**
+ * How the books of an import are written to the database.
+ */
+public enum ImportMode {
+
+    /** Batched JPA inserts. */
+    JPA,
+
+    /** PostgreSQL {@code COPY} into a staging table merged into {@code books}; batched inserts on other databases. */
+    COPY,
+
+    /** Inserts new books and updates existing ones, matched on normalized title and author, whose content changed. */
+    UPSERT;
+
+    /**
+     * @throws IllegalArgumentException if {@code value} does not name a mode
+     */
+    public static ImportMode fromParameter(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown import mode: " + value);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.bookApi.importer;
+
+/**
+ * How an upload should be imported.
+ *
+ * @param parallel persist chunks concurrently on the import worker pool instead of one after another
+ * @param mode     how the books are written to the database
+ */
+public record ImportOptions(boolean parallel, ImportMode mode) {
+
+    public static final ImportOptions DEFAULT = new ImportOptions(false, ImportMode.JPA);
+}
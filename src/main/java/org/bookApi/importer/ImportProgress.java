@@ -0,0 +1,79 @@
+package org.bookApi.importer;
+
+import org.bookApi.dto.ImportFailureDto;
+import org.bookApi.dto.UploadResponseDto;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Running totals of an import. Safe to update from several threads and to read while the import is running.
+ */
+public class ImportProgress {
+
+    private final AtomicInteger insertedCount = new AtomicInteger();
+    private final AtomicInteger updatedCount = new AtomicInteger();
+    private final AtomicInteger unchangedCount = new AtomicInteger();
+    private final AtomicInteger failedCount = new AtomicInteger();
+    private final Queue<ImportFailureDto> failures = new ConcurrentLinkedQueue<>();
+    private final int maxReportedFailures;
+
+    public ImportProgress(int maxReportedFailures) {
+        this.maxReportedFailures = maxReportedFailures;
+    }
+
+    public void inserted(int count) {
+        insertedCount.addAndGet(count);
+    }
+
+    public void updated(int count) {
+        updatedCount.addAndGet(count);
+    }
+
+    public void unchanged(int count) {
+        unchangedCount.addAndGet(count);
+    }
+
+    public void failed(long row, String title, String reason) {
+        if (failedCount.incrementAndGet() <= maxReportedFailures) {
+            failures.add(new ImportFailureDto(row, title, reason));
+        }
+    }
+
+    public int insertedCount() {
+        return insertedCount.get();
+    }
+
+    public int updatedCount() {
+        return updatedCount.get();
+    }
+
+    public int unchangedCount() {
+        return unchangedCount.get();
+    }
+
+    /**
+     * @return number of books that were inserted, updated or found unchanged
+     */
+    public int successCount() {
+        return insertedCount() + updatedCount() + unchangedCount();
+    }
+
+    public int failedCount() {
+        return failedCount.get();
+    }
+
+    public int processedCount() {
+        return successCount() + failedCount();
+    }
+
+    public List<ImportFailureDto> failures() {
+        return List.copyOf(failures);
+    }
+
+    public UploadResponseDto toResponse() {
+        return new UploadResponseDto(successCount(), failedCount(), insertedCount(), updatedCount(), unchangedCount());
+    }
+}
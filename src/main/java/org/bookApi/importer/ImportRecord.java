@@ -0,0 +1,23 @@
+package org.bookApi.importer;
+
+import org.bookApi.dto.BookRequestDto;
+
+/**
+ * One book read from an upload.
+ *
+ * @param book       the book; its author id is {@code null} when the input names the author instead
+ * @param authorName name of the author, for inputs such as the CSV report that do not carry author ids
+ */
+public record ImportRecord(BookRequestDto book, String authorName) {
+
+    public static ImportRecord of(BookRequestDto book) {
+        return new ImportRecord(book, null);
+    }
+
+    /**
+     * @return {@code true} if the author still has to be looked up by name
+     */
+    public boolean needsAuthorLookup() {
+        return book.authorId() == null && authorName != null;
+    }
+}
@@ -0,0 +1,46 @@
+package org.bookApi.importer;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.bookApi.dto.BookRequestDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a JSON array of books one element at a time, so only the current
+ * element is held in memory regardless of the size of the input.
+ */
+public class JsonBookReader implements BookReader {
+
+    private final JsonParser parser;
+    private final ObjectReader bookReader;
+
+    public JsonBookReader(ObjectMapper objectMapper, InputStream in) throws IOException {
+        this.parser = objectMapper.getFactory().createParser(in);
+        this.bookReader = objectMapper.readerFor(BookRequestDto.class);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected a JSON array of books");
+        }
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a book object but found " + token);
+        }
+        return ImportRecord.of(bookReader.readValue(parser));
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,30 @@
+package org.bookApi.importer;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bookApi.dto.BookRequestDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads newline-delimited JSON, one book object per line, holding only the current line in memory.
+ */
+public class NdjsonBookReader implements BookReader {
+
+    private final MappingIterator<BookRequestDto> books;
+
+    public NdjsonBookReader(ObjectMapper objectMapper, InputStream in) throws IOException {
+        this.books = objectMapper.readerFor(BookRequestDto.class).readValues(in);
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        return books.hasNextValue() ? ImportRecord.of(books.nextValue()) : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        books.close();
+    }
+}
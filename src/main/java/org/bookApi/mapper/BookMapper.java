@@ -2,9 +2,12 @@ package org.bookApi.mapper;
 
 
 import org.bookApi.dto.AuthorResponseDto;
+import org.bookApi.dto.BookRequestDto;
 import org.bookApi.dto.BookResponseDto;
+import org.bookApi.entity.Author;
 import org.bookApi.entity.Book;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class BookMapper {
@@ -17,4 +20,13 @@ public class BookMapper {
                 book.getGenres() == null ? List.of() : book.getGenres()
         );
     }
+
+    public static Book toEntity(BookRequestDto dto, Author author) {
+        return Book.builder()
+                .title(dto.title())
+                .author(author)
+                .yearPublished(dto.yearPublished())
+                .genres(dto.genres() == null ? new ArrayList<>() : new ArrayList<>(dto.genres()))
+                .build();
+    }
 }
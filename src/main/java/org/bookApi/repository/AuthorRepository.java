@@ -2,12 +2,63 @@ package org.bookApi.repository;
 
 
 
+import jakarta.persistence.QueryHint;
+import org.bookApi.dto.AuthorResponseDto;
 import org.bookApi.entity.Author;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface AuthorRepository extends JpaRepository<Author, Long> {
+public interface AuthorRepository extends JpaRepository<Author, Long>, AuthorUpsertRepository {
+    @Query("select a.version from Author a where a.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    /**
+     * Deletes the author if it still has the version, without loading it. See {@link #removeById(Long)}.
+     *
+     * @return the number of deleted authors
+     */
+    @Modifying
+    @Query("delete from Author a where a.id = :id and a.version = :version")
+    int removeByIdAndVersion(Long id, Long version);
+
+    /**
+     * Deletes the author without loading it. The database deletes its books and their genres along with it.
+     *
+     * @return the number of deleted authors
+     */
+    @Modifying
+    @Query("delete from Author a where a.id = :id")
+    int removeById(Long id);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     boolean existsByName(String name);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Author> findByName(String name);
+
+    List<Author> findAllByNameIn(Collection<String> names);
+
+    @Query(value = "select new org.bookApi.dto.AuthorResponseDto(a.id, a.name) from Author a",
+            countQuery = "select count(a) from Author a")
+    Page<AuthorResponseDto> findResponses(Pageable pageable);
+
+    @Query("select new org.bookApi.dto.AuthorResponseDto(a.id, a.name) from Author a where a.id in :ids")
+    List<AuthorResponseDto> findResponsesByIdIn(Collection<Long> ids);
+
+    @Query("select new org.bookApi.dto.AuthorResponseDto(a.id, a.name) from Author a order by a.name, a.id")
+    List<AuthorResponseDto> findResponsesOrderByName(Limit limit);
+
+    @Query("select new org.bookApi.dto.AuthorResponseDto(a.id, a.name) from Author a"
+            + " where a.name >= :name and (a.name > :name or (a.name = :name and a.id > :id)) order by a.name, a.id")
+    List<AuthorResponseDto> findResponsesAfter(String name, Long id, Limit limit);
 }
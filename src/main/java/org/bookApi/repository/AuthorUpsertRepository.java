@@ -0,0 +1,36 @@
+package org.bookApi.repository;
+
+import org.bookApi.dto.AuthorResponseDto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes authors keyed on their unique name in a single statement each, {@code INSERT ... ON CONFLICT} on
+ * PostgreSQL and {@code MERGE} elsewhere, so that concurrent writers of the same name never fail on the unique
+ * constraint and no lookup has to run first.
+ */
+public interface AuthorUpsertRepository {
+
+    /**
+     * @return the created author, or empty if an author with the name already exists
+     */
+    Optional<AuthorResponseDto> insertIfAbsent(String name);
+
+    /**
+     * Creates the authors that do not exist yet.
+     *
+     * @return the author of every distinct name, sorted by name
+     */
+    List<AuthorResponseDto> upsertAll(Collection<String> names);
+
+    /**
+     * Renames the author and increments its version.
+     *
+     * @param version the version the author must still have, or {@code null} to rename any version
+     * @return the number of renamed authors, zero if there is no author with the id and version
+     * @throws org.springframework.dao.DataIntegrityViolationException if another author has the name
+     */
+    int rename(long id, String name, Long version);
+}
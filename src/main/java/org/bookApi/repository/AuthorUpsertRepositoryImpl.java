@@ -0,0 +1,156 @@
+package org.bookApi.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.bookApi.config.DatabaseDialect;
+import org.bookApi.dto.AuthorResponseDto;
+import org.bookApi.entity.Author;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+@RequiredArgsConstructor
+public class AuthorUpsertRepositoryImpl implements AuthorUpsertRepository {
+
+    /** Names per statement, which keeps the number of bind parameters well below the driver limits. */
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String POSTGRES_INSERT = """
+            INSERT INTO authors (id, name) VALUES %s
+            ON CONFLICT (name) DO NOTHING
+            RETURNING id, name, TRUE""";
+
+    /** Rewrites the name onto itself so that existing rows are returned too; xmax is zero only for new rows. */
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO authors (id, name) VALUES %s
+            ON CONFLICT (name) DO UPDATE SET name = EXCLUDED.name
+            RETURNING id, name, xmax = 0""";
+
+    private static final String MERGE_INSERT = """
+            SELECT id, name, TRUE FROM FINAL TABLE (
+                MERGE INTO authors a USING (VALUES %s) s(id, name) ON a.name = s.name
+                WHEN NOT MATCHED THEN INSERT (id, name) VALUES (s.id, s.name))""";
+
+    /** MERGE does not tell inserted rows from updated ones, so every returned row may be new. */
+    private static final String MERGE_UPSERT = """
+            SELECT id, name, CAST(NULL AS BOOLEAN) FROM FINAL TABLE (
+                MERGE INTO authors a USING (VALUES %s) s(id, name) ON a.name = s.name
+                WHEN MATCHED THEN UPDATE SET name = s.name
+                WHEN NOT MATCHED THEN INSERT (id, name) VALUES (s.id, s.name))""";
+
+    private final EntityManager entityManager;
+    private final DatabaseDialect databaseDialect;
+
+    @Override
+    public Optional<AuthorResponseDto> insertIfAbsent(String name) {
+        List<AuthorResponseDto> inserted = write(databaseDialect.isPostgres() ? POSTGRES_INSERT : MERGE_INSERT, List.of(name));
+        return inserted.stream().findFirst();
+    }
+
+    @Override
+    public List<AuthorResponseDto> upsertAll(Collection<String> names) {
+        // Sorted, so that concurrent upserts lock the rows of shared names in the same order.
+        List<String> distinct = new ArrayList<>(new TreeSet<>(names));
+        List<AuthorResponseDto> authors = new ArrayList<>(distinct.size());
+        for (int from = 0; from < distinct.size(); from += BATCH_SIZE) {
+            List<String> batch = distinct.subList(from, Math.min(from + BATCH_SIZE, distinct.size()));
+            authors.addAll(write(databaseDialect.isPostgres() ? POSTGRES_UPSERT : MERGE_UPSERT, batch));
+        }
+        authors.sort(Comparator.comparing(AuthorResponseDto::name));
+        return authors;
+    }
+
+    @Override
+    public int rename(long id, String name, Long version) {
+        NativeQuery<?> query = entityManager.createNativeQuery(
+                        "UPDATE authors SET name = :name, version = version + 1 WHERE id = :id"
+                                + (version == null ? "" : " AND version = :version"))
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("authors")
+                .setParameter("name", name)
+                .setParameter("id", id);
+        if (version != null) {
+            query.setParameter("version", version);
+        }
+        return query.executeUpdate();
+    }
+
+    private List<AuthorResponseDto> write(String template, List<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < names.size(); i++) {
+            if (i > 0) {
+                values.append(", ");
+            }
+            values.append(databaseDialect.isPostgres()
+                    ? "(:id" + i + ", :n" + i + ")"
+                    : "(CAST(:id" + i + " AS BIGINT), CAST(:n" + i + " AS VARCHAR(255)))");
+        }
+        NativeQuery<?> query = entityManager.createNativeQuery(template.formatted(values))
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("authors");
+        IdentifierGenerator ids = authorIdGenerator();
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        for (int i = 0; i < names.size(); i++) {
+            Author author = Author.builder().name(names.get(i)).build();
+            query.setParameter("id" + i, ids.generate(session, author));
+            query.setParameter("n" + i, names.get(i));
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = (List<Object[]>) query.getResultList();
+        List<AuthorResponseDto> authors = new ArrayList<>(rows.size());
+        boolean created = false;
+        for (Object[] row : rows) {
+            authors.add(new AuthorResponseDto(((Number) row[0]).longValue(), (String) row[1]));
+            created |= !Boolean.FALSE.equals(row[2]);
+        }
+        if (created) {
+            evictQueryResultsOnCompletion();
+        }
+        return authors;
+    }
+
+    /**
+     * The generator JPA inserts take author ids from, so that native inserts draw from the same pooled block of the
+     * sequence instead of using up a block per author. Ids drawn for names that already exist are skipped.
+     */
+    private IdentifierGenerator authorIdGenerator() {
+        return (IdentifierGenerator) entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor(Author.class)
+                .getGenerator();
+    }
+
+    /**
+     * Hibernate does not see the inserts of a native query, so cached lookups by name could still miss the new
+     * authors. They are dropped when the transaction completes, that is once the inserts are visible.
+     */
+    private void evictQueryResultsOnCompletion() {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.evictDefaultQueryRegion();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.evictDefaultQueryRegion();
+            }
+        });
+    }
+}
@@ -0,0 +1,28 @@
+package org.bookApi.repository;
+
+import org.bookApi.entity.Book;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Deletes books with a single statement, without loading them first. Their genres go with them through the
+ * {@code ON DELETE CASCADE} of {@code book_genres}.
+ */
+public interface BookDeleteRepository {
+
+    /**
+     * @return detached copies of the deleted books, holding their id, title, year and author id; ids without a book
+     * are left out
+     */
+    List<Book> deleteAllByIdReturning(Collection<Long> ids);
+
+    /**
+     * Deletes the book if it still has the version.
+     *
+     * @return a detached copy of the deleted book, see {@link #deleteAllByIdReturning}, or empty if there is no book
+     * with the id and version
+     */
+    Optional<Book> deleteByIdAndVersionReturning(long id, long version);
+}
@@ -0,0 +1,96 @@
+package org.bookApi.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.bookApi.config.DatabaseDialect;
+import org.bookApi.entity.Author;
+import org.bookApi.entity.Book;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class BookDeleteRepositoryImpl implements BookDeleteRepository {
+
+    private static final String POSTGRES_DELETE = """
+            DELETE FROM books WHERE %s
+            RETURNING id, title, year_published, author_id""";
+
+    private static final String DELTA_TABLE_DELETE = """
+            SELECT id, title, year_published, author_id FROM OLD TABLE (
+                DELETE FROM books WHERE %s)""";
+
+    private final EntityManager entityManager;
+    private final DatabaseDialect databaseDialect;
+
+    @Override
+    public List<Book> deleteAllByIdReturning(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return delete("id IN (:ids)", Map.of("ids", ids));
+    }
+
+    @Override
+    public Optional<Book> deleteByIdAndVersionReturning(long id, long version) {
+        return delete("id = :id AND version = :version", Map.of("id", id, "version", version)).stream().findFirst();
+    }
+
+    private List<Book> delete(String condition, Map<String, Object> parameters) {
+        NativeQuery<?> query = entityManager.createNativeQuery(
+                        (databaseDialect.isPostgres() ? POSTGRES_DELETE : DELTA_TABLE_DELETE).formatted(condition))
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("books")
+                .addSynchronizedQuerySpace("book_genres");
+        parameters.forEach(query::setParameter);
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = (List<Object[]>) query.getResultList();
+
+        List<Book> deleted = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Book book = Book.builder()
+                    .id(((Number) row[0]).longValue())
+                    .title((String) row[1])
+                    .yearPublished(((Number) row[2]).intValue())
+                    .author(Author.builder().id(((Number) row[3]).longValue()).build())
+                    .build();
+            deleted.add(book);
+            // A copy loaded earlier in this session must not be read or flushed again.
+            entityManager.detach(entityManager.getReference(Book.class, book.getId()));
+        }
+        evictOnCompletion(deleted);
+        return deleted;
+    }
+
+    /**
+     * Hibernate does not see the rows a native query returns as deleted, so the second-level cache could still
+     * serve them. They are dropped right away and once more when the transaction completes, in case a concurrent
+     * reader cached them again meanwhile.
+     */
+    private void evictOnCompletion(List<Book> deleted) {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        Runnable evict = () -> {
+            for (Book book : deleted) {
+                cache.evictEntityData(Book.class, book.getId());
+                cache.evictCollectionData(Book.class.getName() + ".genres", book.getId());
+            }
+        };
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict.run();
+                }
+            });
+        }
+    }
+}
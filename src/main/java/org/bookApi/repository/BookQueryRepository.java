@@ -0,0 +1,29 @@
+package org.bookApi.repository;
+
+import org.bookApi.dto.BookResponseDto;
+import org.bookApi.entity.Book;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reads books straight into {@link BookResponseDto}s, without loading {@link Book} entities into the persistence
+ * context. The columns of the books and their authors come from one query, the genres of all books read together
+ * from one more. Lists are sorted by title and id.
+ */
+public interface BookQueryRepository {
+
+    List<BookResponseDto> findResponses(Specification<Book> spec, int offset, int limit);
+
+    /**
+     * @return the books in the order of {@code ids}, leaving out ids that do not exist
+     */
+    List<BookResponseDto> findResponsesById(List<Long> ids);
+
+    /**
+     * Streams the matching books from a database cursor, reading the genres once per block of {@code blockSize}
+     * books. Must be consumed inside a transaction and closed.
+     */
+    Stream<BookResponseDto> streamResponses(Specification<Book> spec, int blockSize);
+}
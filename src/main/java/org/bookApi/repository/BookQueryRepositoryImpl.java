@@ -0,0 +1,129 @@
+package org.bookApi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.bookApi.dto.AuthorResponseDto;
+import org.bookApi.dto.BookResponseDto;
+import org.bookApi.entity.Author;
+import org.bookApi.entity.Book;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@RequiredArgsConstructor
+public class BookQueryRepositoryImpl implements BookQueryRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<BookResponseDto> findResponses(Specification<Book> spec, int offset, int limit) {
+        return toResponses(rowsQuery(spec)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList());
+    }
+
+    @Override
+    public List<BookResponseDto> findResponsesById(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookResponseDto> byId = new HashMap<>();
+        for (BookResponseDto book : toResponses(rowsQuery((root, cq, cb) -> root.get("id").in(ids)).getResultList())) {
+            byId.put(book.id(), book);
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public Stream<BookResponseDto> streamResponses(Specification<Book> spec, int blockSize) {
+        Stream<Object[]> rows = rowsQuery(spec)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, blockSize)
+                .getResultStream();
+        Iterator<Object[]> iterator = rows.iterator();
+        Iterator<List<BookResponseDto>> blocks = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public List<BookResponseDto> next() {
+                if (!iterator.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<Object[]> block = new ArrayList<>(blockSize);
+                while (iterator.hasNext() && block.size() < blockSize) {
+                    block.add(iterator.next());
+                }
+                return toResponses(block);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(blocks, Spliterator.ORDERED), false)
+                .flatMap(List::stream)
+                .onClose(rows::close);
+    }
+
+    /**
+     * Selects id, title, author id, author name and year of the books matching {@code spec}.
+     */
+    private TypedQuery<Object[]> rowsQuery(Specification<Book> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+        Root<Book> root = cq.from(Book.class);
+        Join<Book, Author> author = root.join("author");
+        cq.multiselect(root.get("id"), root.get("title"), author.get("id"), author.get("name"),
+                root.get("yearPublished"));
+        Predicate predicate = spec.toPredicate(root, cq, cb);
+        if (predicate != null) {
+            cq.where(predicate);
+        }
+        cq.orderBy(cb.asc(root.get("title")), cb.asc(root.get("id")));
+        return entityManager.createQuery(cq);
+    }
+
+    private List<BookResponseDto> toResponses(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+        }
+        Map<Long, List<String>> genres = new HashMap<>();
+        for (Object[] genre : entityManager.createQuery(
+                        "select b.id, g from Book b join b.genres g where b.id in :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList()) {
+            genres.computeIfAbsent((Long) genre[0], id -> new ArrayList<>()).add((String) genre[1]);
+        }
+
+        List<BookResponseDto> books = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            books.add(new BookResponseDto(
+                    (Long) row[0],
+                    (String) row[1],
+                    new AuthorResponseDto((Long) row[2], (String) row[3]),
+                    (Integer) row[4],
+                    genres.getOrDefault((Long) row[0], List.of())));
+        }
+        return books;
+    }
+}
@@ -2,11 +2,44 @@ package org.bookApi.repository;
 
 import org.bookApi.entity.Book;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
+
+/**
+ * Read methods fetch the author together with the books; genres are loaded in batches, see the {@code genres} mapping of {@link Book}.
+ * Lists that are only turned into responses are read without entities, see {@link BookQueryRepository}.
+ */
 public interface BookRepository extends
         JpaRepository<Book, Long>,
-        JpaSpecificationExecutor<Book> {
-}
\ No newline at end of file
+        JpaSpecificationExecutor<Book>,
+        BookQueryRepository,
+        BookDeleteRepository {
+
+    @Override
+    @EntityGraph(attributePaths = {"author", "genres"})
+    Optional<Book> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "author")
+    List<Book> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "author")
+    Page<Book> findAll(Specification<Book> spec, Pageable pageable);
+
+    @Query("select new org.bookApi.repository.BookVersions(b.version, a.version) from Book b join b.author a"
+            + " where b.id = :id")
+    Optional<BookVersions> findVersionsById(Long id);
+
+    List<Book> findAllByTitleKeyInAndAuthorIdIn(Collection<String> titleKeys, Collection<Long> authorIds);
+}
@@ -0,0 +1,7 @@
+package org.bookApi.repository;
+
+/**
+ * Versions of a book and of its author, which together change whenever the response for the book does.
+ */
+public record BookVersions(long book, long author) {
+}
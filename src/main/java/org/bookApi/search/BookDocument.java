@@ -0,0 +1,17 @@
+package org.bookApi.search;
+
+import org.bookApi.entity.Book;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The fields of a book the index needs, copied so they can be applied after the transaction that wrote the book.
+ */
+record BookDocument(long id, String title, String titleKey, int yearPublished, long authorId, List<String> genres) {
+
+    static BookDocument of(Book book, List<String> genres) {
+        return new BookDocument(book.getId(), book.getTitle(), Book.titleKey(book.getTitle()),
+                book.getYearPublished(), book.getAuthor().getId(), genres.stream().filter(Objects::nonNull).toList());
+    }
+}
@@ -0,0 +1,307 @@
+package org.bookApi.search;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.bookApi.config.DatabaseDialect;
+import org.bookApi.entity.Book;
+import org.hibernate.Hibernate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index of the books, enabled with {@code book.index.enabled=true}, from which
+ * {@code BookService.getList} finds the ids of a page and the total without querying the database.
+ * <p>
+ * It is built in the background once the application is ready and then follows the books written through JPA
+ * (see {@link BookIndexUpdater}), applying the changes of a transaction when it commits. Writes that bypass JPA
+ * must call {@link #invalidate()}, which takes the index out of service until it has been rebuilt. While it is not
+ * in service {@link #search} returns {@code null} and callers query the database instead.
+ * <p>
+ * Titles are sorted in the order the database sorts them in, see {@link DatabaseDialect#titleOrder()}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "book.index", name = "enabled", havingValue = "true")
+@Slf4j
+public class BookIndex {
+
+    private static final int LOAD_BATCH_SIZE = 1_000;
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Comparator<String> titleOrder;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildMonitor = new Object();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicLong staleGeneration = new AtomicLong();
+    private volatile boolean rebuildRequested;
+
+    /** Guarded by {@link #lock}, as are the two fields below. */
+    private BookPostings postings;
+    private boolean ready;
+    /** Changes committed while a rebuild is loading the books, replayed onto the rebuilt postings. */
+    private List<Change> changedDuringRebuild;
+
+    public BookIndex(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                     DatabaseDialect databaseDialect) {
+        this.entityManager = entityManager;
+        this.titleOrder = databaseDialect.titleOrder();
+        this.postings = new BookPostings(titleOrder);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Ids of one page of matching books, in list order, and the number of all matching books.
+     */
+    public record Page(List<Long> ids, long total) {
+
+        static final Page EMPTY = new Page(List.of(), 0);
+    }
+
+    /**
+     * Number of matching books per genre, in lower case, and per year.
+     */
+    public record Facets(Map<String, Long> genres, Map<Integer, Long> years) {
+    }
+
+    /**
+     * @param title substring of the title, ignoring case and repeated whitespace
+     * @return the page of matching books, or {@code null} if the index is not in service
+     */
+    public Page search(Long authorId, String title, Integer year, GenreFilter genres, int offset, int limit) {
+        String titleKey = title == null || title.isBlank() ? null : Book.titleKey(title);
+        lock.readLock().lock();
+        try {
+            return ready ? postings.search(authorId, titleKey, year, genres, offset, limit) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the facets of the books matching the filters, see {@link #search}, or {@code null} if the index is not
+     * in service
+     */
+    public Facets facets(Long authorId, String title, Integer year, GenreFilter genres) {
+        String titleKey = title == null || title.isBlank() ? null : Book.titleKey(title);
+        lock.readLock().lock();
+        try {
+            return ready ? postings.facets(authorId, titleKey, year, genres) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        requestRebuild();
+    }
+
+    /**
+     * Takes the index out of service until it is rebuilt. Inside a transaction this happens when it commits.
+     */
+    public void invalidate() {
+        afterCommit(new Change(Change.Kind.STALE, 0, null));
+    }
+
+    /**
+     * Reloads all books, replacing the postings. Runs on the calling thread; concurrent calls run one after the other.
+     */
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            long generation = staleGeneration.get();
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            BookPostings rebuilt = new BookPostings(titleOrder);
+            try {
+                load(rebuilt);
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                changedDuringRebuild = null;
+                lock.writeLock().unlock();
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild.forEach(change -> change.applyTo(rebuilt));
+                changedDuringRebuild = null;
+                postings = rebuilt;
+                ready = staleGeneration.get() == generation;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Indexed {} books", rebuilt.size());
+        }
+    }
+
+    void bookWritten(Book book) {
+        List<String> genres = book.getGenres();
+        if (genres != null && !Hibernate.isInitialized(genres)) {
+            // The genres were not touched, so they are whatever the last rebuild or write indexed; reading them
+            // here would load a collection in the middle of a flush.
+            afterCommit(new Change(Change.Kind.STALE, book.getId(), null));
+            return;
+        }
+        BookDocument document = BookDocument.of(book, genres == null ? List.of() : genres);
+        afterCommit(new Change(Change.Kind.PUT, document.id(), document));
+    }
+
+    /**
+     * Drops a book. Called for books removed through JPA, and by writes that bypass it.
+     */
+    public void bookRemoved(Long id) {
+        afterCommit(new Change(Change.Kind.REMOVE_BOOK, id, null));
+    }
+
+    /**
+     * Drops the books of an author removed together with them by the database.
+     */
+    public void authorRemoved(Long authorId) {
+        afterCommit(new Change(Change.Kind.REMOVE_AUTHOR, authorId, null));
+    }
+
+    private void afterCommit(Change change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(List.of(change));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Change> pending = (List<Change>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Change> collected = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, collected);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(collected);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BookIndex.this);
+                }
+            });
+            pending = collected;
+        }
+        pending.add(change);
+    }
+
+    private void apply(List<Change> changes) {
+        boolean stale = false;
+        lock.writeLock().lock();
+        try {
+            for (Change change : changes) {
+                if (change.kind() == Change.Kind.STALE) {
+                    stale = true;
+                    staleGeneration.incrementAndGet();
+                    ready = false;
+                } else {
+                    change.applyTo(postings);
+                    if (changedDuringRebuild != null) {
+                        changedDuringRebuild.add(change);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (stale) {
+            requestRebuild();
+        }
+    }
+
+    /**
+     * Rebuilds on a background thread, once more if another rebuild is requested meanwhile.
+     */
+    private void requestRebuild() {
+        rebuildRequested = true;
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().name("book-index-rebuild").start(() -> {
+            try {
+                while (rebuildRequested) {
+                    rebuildRequested = false;
+                    rebuild();
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to rebuild the book index, it stays out of service", e);
+            } finally {
+                rebuilding.set(false);
+            }
+            if (rebuildRequested) {
+                requestRebuild();
+            }
+        });
+    }
+
+    private void load(BookPostings target) {
+        long after = Long.MIN_VALUE;
+        while (true) {
+            long from = after;
+            List<BookDocument> batch = readOnlyTransaction.execute(status -> {
+                List<Book> books = entityManager.createQuery(
+                                "select b from Book b where b.id > :after order by b.id", Book.class)
+                        .setParameter("after", from)
+                        .setMaxResults(LOAD_BATCH_SIZE)
+                        .getResultList();
+                List<BookDocument> documents = new ArrayList<>(books.size());
+                for (Book book : books) {
+                    documents.add(BookDocument.of(book, book.getGenres() == null ? List.of() : book.getGenres()));
+                }
+                return documents;
+            });
+            if (batch == null || batch.isEmpty()) {
+                return;
+            }
+            batch.forEach(target::put);
+            after = batch.get(batch.size() - 1).id();
+        }
+    }
+
+    /**
+     * A committed write; {@code id} is the id of the book, or of the author for {@link Kind#REMOVE_AUTHOR}.
+     */
+    private record Change(Kind kind, long id, BookDocument document) {
+
+        enum Kind {
+            PUT, REMOVE_BOOK, REMOVE_AUTHOR,
+            /** A write the index cannot follow. */
+            STALE
+        }
+
+        void applyTo(BookPostings target) {
+            switch (kind) {
+                case PUT -> target.put(document);
+                case REMOVE_BOOK -> target.remove(id);
+                case REMOVE_AUTHOR -> target.removeAuthor(id);
+                case STALE -> {
+                }
+            }
+        }
+    }
+}
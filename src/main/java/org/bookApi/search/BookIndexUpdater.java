@@ -0,0 +1,30 @@
+package org.bookApi.search;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.bookApi.entity.Book;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity listener of {@link Book} that passes the books written through JPA on to the {@link BookIndex}, if enabled.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookIndexUpdater {
+
+    private final ObjectProvider<BookIndex> bookIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void bookSaved(Book book) {
+        bookIndex.ifAvailable(index -> index.bookWritten(book));
+    }
+
+    @PostRemove
+    public void bookRemoved(Book book) {
+        bookIndex.ifAvailable(index -> index.bookRemoved(book.getId()));
+    }
+}
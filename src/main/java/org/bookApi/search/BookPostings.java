@@ -0,0 +1,267 @@
+package org.bookApi.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Posting lists of title trigrams, genres, years and authors over the indexed books, plus the books in list order
+ * (title, then id). Each book gets a small ordinal, reused after the book is removed, so posting lists stay dense.
+ * Not thread-safe.
+ */
+final class BookPostings {
+
+    /** Above this share of all books the matches are picked from the ordered books rather than sorted. */
+    private static final int SORT_SHARE = 8;
+
+    private final Map<Long, Entry> byId = new HashMap<>();
+    private final List<Entry> byOrdinal = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Comparator<Entry> listOrder;
+    private final NavigableSet<Entry> ordered;
+
+    private final Map<String, PostingList> trigrams = new HashMap<>();
+    private final Map<String, PostingList> genres = new HashMap<>();
+    private final Map<Integer, PostingList> years = new HashMap<>();
+    private final Map<Long, PostingList> authors = new HashMap<>();
+
+    /**
+     * @param titleOrder the order the database sorts titles in
+     */
+    BookPostings(Comparator<String> titleOrder) {
+        this.listOrder = Comparator.comparing(Entry::title, titleOrder).thenComparingLong(Entry::id);
+        this.ordered = new TreeSet<>(listOrder);
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    /**
+     * Adds the book, replacing the indexed version if there is one.
+     */
+    void put(BookDocument book) {
+        remove(book.id());
+        Integer free = freeOrdinals.poll();
+        int ordinal = free != null ? free : byOrdinal.size();
+        Entry entry = new Entry(ordinal, book.id(), book.title(), book.titleKey(), book.yearPublished(),
+                book.authorId(), book.genres().stream().map(GenreFilter::key).distinct().toList());
+        if (free != null) {
+            byOrdinal.set(ordinal, entry);
+        } else {
+            byOrdinal.add(entry);
+        }
+        byId.put(entry.id(), entry);
+        ordered.add(entry);
+
+        for (String trigram : trigrams(entry.titleKey())) {
+            trigrams.computeIfAbsent(trigram, t -> new PostingList()).add(ordinal);
+        }
+        for (String genre : entry.genres()) {
+            genres.computeIfAbsent(genre, g -> new PostingList()).add(ordinal);
+        }
+        years.computeIfAbsent(entry.year(), y -> new PostingList()).add(ordinal);
+        authors.computeIfAbsent(entry.authorId(), a -> new PostingList()).add(ordinal);
+    }
+
+    void remove(long id) {
+        Entry entry = byId.remove(id);
+        if (entry == null) {
+            return;
+        }
+        int ordinal = entry.ordinal();
+        ordered.remove(entry);
+        for (String trigram : trigrams(entry.titleKey())) {
+            removePosting(trigrams, trigram, ordinal);
+        }
+        for (String genre : entry.genres()) {
+            removePosting(genres, genre, ordinal);
+        }
+        removePosting(years, entry.year(), ordinal);
+        removePosting(authors, entry.authorId(), ordinal);
+        byOrdinal.set(ordinal, null);
+        freeOrdinals.push(ordinal);
+    }
+
+    void removeAuthor(long authorId) {
+        PostingList books = authors.get(authorId);
+        if (books == null) {
+            return;
+        }
+        for (int ordinal : books.toArray()) {
+            remove(byOrdinal.get(ordinal).id());
+        }
+    }
+
+    /**
+     * Finds the books matching all given filters, like {@code BookService.getList} does: the title is a substring of
+     * the normalized title.
+     *
+     * @return the ids of the page of matches in list order, and the number of all matches
+     */
+    BookIndex.Page search(Long authorId, String titleKey, Integer year, GenreFilter genreFilter,
+                          int offset, int limit) {
+        List<Entry> matches = matches(authorId, titleKey, year, genreFilter);
+        if (matches == null) {
+            return new BookIndex.Page(page(ordered.iterator(), null, offset, limit), ordered.size());
+        }
+        if ((long) matches.size() * SORT_SHARE < ordered.size()) {
+            matches.sort(listOrder);
+            return new BookIndex.Page(page(matches.iterator(), null, offset, limit), matches.size());
+        }
+        BitSet matched = new BitSet(byOrdinal.size());
+        for (Entry entry : matches) {
+            matched.set(entry.ordinal());
+        }
+        return new BookIndex.Page(page(ordered.iterator(), matched, offset, limit), matches.size());
+    }
+
+    /**
+     * Counts the books matching the filters per genre and per year.
+     */
+    BookIndex.Facets facets(Long authorId, String titleKey, Integer year, GenreFilter genreFilter) {
+        List<Entry> matches = matches(authorId, titleKey, year, genreFilter);
+        Map<String, Long> genreCounts = new HashMap<>();
+        Map<Integer, Long> yearCounts = new HashMap<>();
+        for (Entry entry : matches != null ? matches : byId.values()) {
+            for (String genre : entry.genres()) {
+                genreCounts.merge(genre, 1L, Long::sum);
+            }
+            yearCounts.merge(entry.year(), 1L, Long::sum);
+        }
+        return new BookIndex.Facets(genreCounts, yearCounts);
+    }
+
+    /**
+     * @return the matching books in no particular order, or {@code null} if there are no filters and all books match
+     */
+    private List<Entry> matches(Long authorId, String titleKey, Integer year, GenreFilter genreFilter) {
+        List<PostingList> lists = new ArrayList<>();
+        if (authorId != null && !addPosting(lists, authors.get(authorId))) {
+            return new ArrayList<>();
+        }
+        if (year != null && !addPosting(lists, years.get(year))) {
+            return new ArrayList<>();
+        }
+        if (!genreFilter.isEmpty() && !addPosting(lists, genrePosting(genreFilter))) {
+            return new ArrayList<>();
+        }
+        if (titleKey != null) {
+            for (String trigram : trigrams(titleKey)) {
+                if (!addPosting(lists, trigrams.get(trigram))) {
+                    return new ArrayList<>();
+                }
+            }
+        }
+
+        if (lists.isEmpty() && titleKey == null) {
+            return null;
+        }
+        List<Entry> matches = new ArrayList<>();
+        if (lists.isEmpty()) {
+            for (Entry entry : byId.values()) {
+                if (entry.titleKey().contains(titleKey)) {
+                    matches.add(entry);
+                }
+            }
+            return matches;
+        }
+
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        candidates:
+        for (int ordinal : lists.get(0).toArray()) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(ordinal)) {
+                    continue candidates;
+                }
+            }
+            Entry entry = byOrdinal.get(ordinal);
+            if (titleKey == null || entry.titleKey().contains(titleKey)) {
+                matches.add(entry);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return the books with all or any of the genres, or {@code null} if there are none
+     */
+    private PostingList genrePosting(GenreFilter filter) {
+        if (filter.genres().size() == 1) {
+            return genres.get(filter.genres().get(0));
+        }
+        BitSet combined = null;
+        for (String genre : filter.genres()) {
+            PostingList list = genres.get(genre);
+            if (list == null) {
+                if (filter.match() == GenreMatch.ALL) {
+                    return null;
+                }
+                continue;
+            }
+            BitSet bits = list.toBitSet();
+            if (combined == null) {
+                combined = bits;
+            } else if (filter.match() == GenreMatch.ALL) {
+                combined.and(bits);
+            } else {
+                combined.or(bits);
+            }
+        }
+        return combined == null ? null : PostingList.of(combined);
+    }
+
+    private static List<Long> page(Iterator<Entry> entries, BitSet matched, int offset, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, 1_024));
+        int skipped = 0;
+        while (entries.hasNext() && ids.size() < limit) {
+            Entry entry = entries.next();
+            if (matched != null && !matched.get(entry.ordinal())) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                ids.add(entry.id());
+            }
+        }
+        return ids;
+    }
+
+    private static boolean addPosting(List<PostingList> lists, PostingList list) {
+        if (list == null || list.isEmpty()) {
+            return false;
+        }
+        lists.add(list);
+        return true;
+    }
+
+    private static <K> void removePosting(Map<K, PostingList> postings, K term, int ordinal) {
+        PostingList list = postings.get(term);
+        if (list != null && list.remove(ordinal) && list.isEmpty()) {
+            postings.remove(term);
+        }
+    }
+
+    static Set<String> trigrams(String key) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= key.length(); i++) {
+            trigrams.add(key.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private record Entry(int ordinal, long id, String title, String titleKey, int year, long authorId,
+                         List<String> genres) {
+    }
+}
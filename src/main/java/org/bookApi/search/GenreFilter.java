@@ -0,0 +1,40 @@
+package org.bookApi.search;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Genres a book must have, compared ignoring case and surrounding whitespace.
+ *
+ * @param genres the genres, normalized with {@link #key(String)}, without duplicates
+ */
+public record GenreFilter(List<String> genres, GenreMatch match) {
+
+    public static final GenreFilter NONE = new GenreFilter(List.of(), GenreMatch.ANY);
+
+    public GenreFilter {
+        genres = genres == null ? List.of() : genres.stream()
+                .filter(Objects::nonNull)
+                .map(GenreFilter::key)
+                .filter(genre -> !genre.isEmpty())
+                .distinct()
+                .toList();
+        Objects.requireNonNull(match);
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code match} does not name a {@link GenreMatch}
+     */
+    public static GenreFilter of(List<String> genres, String match) {
+        return new GenreFilter(genres, GenreMatch.fromParameter(match));
+    }
+
+    public boolean isEmpty() {
+        return genres.isEmpty();
+    }
+
+    public static String key(String genre) {
+        return genre.strip().toLowerCase(Locale.ROOT);
+    }
+}
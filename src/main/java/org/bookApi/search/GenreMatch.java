@@ -0,0 +1,26 @@
+package org.bookApi.search;
+
+import java.util.Locale;
+
+/**
+ * How the genres of a {@link GenreFilter} are combined.
+ */
+public enum GenreMatch {
+
+    /** Books with at least one of the genres. */
+    ANY,
+
+    /** Books with all of the genres. */
+    ALL;
+
+    /**
+     * @throws IllegalArgumentException if {@code value} does not name a match
+     */
+    public static GenreMatch fromParameter(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown genre match: " + value);
+        }
+    }
+}
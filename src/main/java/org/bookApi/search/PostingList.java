@@ -0,0 +1,120 @@
+package org.bookApi.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Set of book ordinals containing one term. Kept as a sorted array while sparse and switched to a bitmap once the
+ * bitmap would be smaller, that is once more than one ordinal in 32 up to the highest one is present.
+ * Not thread-safe.
+ */
+final class PostingList {
+
+    private static final int MIN_BITMAP_SIZE = 64;
+    private static final int BITMAP_DENSITY = 32;
+
+    private int[] ordinals = new int[4];
+    private BitSet bits;
+    private int size;
+
+    /**
+     * @return a list of the set bits of {@code bits}, which it takes over
+     */
+    static PostingList of(BitSet bits) {
+        PostingList list = new PostingList();
+        list.size = bits.cardinality();
+        if (list.size >= MIN_BITMAP_SIZE && (long) list.size * BITMAP_DENSITY > bits.length() - 1) {
+            list.bits = bits;
+            list.ordinals = null;
+        } else {
+            list.ordinals = bits.stream().toArray();
+        }
+        return list;
+    }
+
+    boolean add(int ordinal) {
+        if (bits != null) {
+            if (bits.get(ordinal)) {
+                return false;
+            }
+            bits.set(ordinal);
+            size++;
+            return true;
+        }
+        int at = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (at >= 0) {
+            return false;
+        }
+        at = -at - 1;
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, Math.max(4, size * 2));
+        }
+        System.arraycopy(ordinals, at, ordinals, at + 1, size - at);
+        ordinals[at] = ordinal;
+        size++;
+        if (size >= MIN_BITMAP_SIZE && (long) size * BITMAP_DENSITY > ordinals[size - 1]) {
+            bits = new BitSet(ordinals[size - 1] + 1);
+            for (int i = 0; i < size; i++) {
+                bits.set(ordinals[i]);
+            }
+            ordinals = null;
+        }
+        return true;
+    }
+
+    boolean remove(int ordinal) {
+        if (bits != null) {
+            if (!bits.get(ordinal)) {
+                return false;
+            }
+            bits.clear(ordinal);
+            size--;
+            // Switch back with some slack, so a list on the threshold does not flip on every write.
+            if ((long) size * BITMAP_DENSITY * 2 < bits.length()) {
+                ordinals = bits.stream().toArray();
+                bits = null;
+            }
+            return true;
+        }
+        int at = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (at < 0) {
+            return false;
+        }
+        System.arraycopy(ordinals, at + 1, ordinals, at, size - at - 1);
+        size--;
+        return true;
+    }
+
+    boolean contains(int ordinal) {
+        return bits != null ? bits.get(ordinal) : Arrays.binarySearch(ordinals, 0, size, ordinal) >= 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return a new bitmap of the ordinals
+     */
+    BitSet toBitSet() {
+        if (bits != null) {
+            return (BitSet) bits.clone();
+        }
+        BitSet copy = new BitSet(size == 0 ? 0 : ordinals[size - 1] + 1);
+        for (int i = 0; i < size; i++) {
+            copy.set(ordinals[i]);
+        }
+        return copy;
+    }
+
+    /**
+     * @return the ordinals in ascending order
+     */
+    int[] toArray() {
+        return bits != null ? bits.stream().toArray() : Arrays.copyOf(ordinals, size);
+    }
+}
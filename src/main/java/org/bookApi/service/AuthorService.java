@@ -1,22 +1,40 @@
 package org.bookApi.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.bookApi.dto.AuthorRequestDto;
 import org.bookApi.dto.AuthorResponseDto;
+import org.bookApi.dto.BatchResponseDto;
+import org.bookApi.dto.CursorPageDto;
 import org.bookApi.dto.PaginatedResponseDto;
 import org.bookApi.entity.Author;
+import org.bookApi.entity.Book;
+import org.bookApi.exception.PreconditionFailedException;
 import org.bookApi.exception.ResourceNotFoundException;
 import org.bookApi.repository.AuthorRepository;
 import org.bookApi.mapper.AuthorMapper;
+import org.bookApi.pagination.KeysetCursor;
+import org.bookApi.search.BookIndex;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -24,7 +42,13 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class AuthorService {
 
+    static final int MAX_BATCH_IDS = 500;
+
     private final AuthorRepository authorRepository;
+    private final BookCountCache bookCountCache;
+    private final BookSearchCache bookSearchCache;
+    private final ObjectProvider<BookIndex> bookIndex;
+    private final EntityManager entityManager;
 
     public List<AuthorResponseDto> getAll() {
         List<Author> authors = authorRepository.findAll();
@@ -40,53 +64,185 @@ public class AuthorService {
         return AuthorMapper.toDto(author);
     }
 
+    /**
+     * Returns the author together with its ETag; repeated reads are served by the second-level cache.
+     */
+    public Versioned<AuthorResponseDto> getVersioned(Long id) {
+        Author author = authorRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Author not found with id " + id));
+        return new Versioned<>(AuthorMapper.toDto(author), ETags.of(author.getVersion()));
+    }
+
+    /**
+     * Looks up the authors with one query.
+     *
+     * @param ids at most {@value #MAX_BATCH_IDS}, none of them {@code null}; repeated ids are returned once
+     */
+    public BatchResponseDto<AuthorResponseDto> getBatch(List<Long> ids) {
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("IDs must not be empty");
+        }
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        if (distinct.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " ids can be fetched at once");
+        }
+        Map<Long, AuthorResponseDto> byId = new HashMap<>();
+        if (!distinct.isEmpty()) {
+            for (AuthorResponseDto author : authorRepository.findResponsesByIdIn(distinct)) {
+                byId.put(author.id(), author);
+            }
+        }
+        return new BatchResponseDto<>(
+                distinct.stream().map(byId::get).filter(Objects::nonNull).toList(),
+                distinct.stream().filter(id -> !byId.containsKey(id)).toList());
+    }
+
     @Transactional
     public AuthorResponseDto create(AuthorRequestDto dto) {
-        if (authorRepository.existsByName(dto.name())) {
-            throw new IllegalArgumentException("Author with name '" + dto.name() + "' already exists");
-        }
-        Author saved = authorRepository.save(
-                Author.builder().name(dto.name()).build()
-        );
-        return AuthorMapper.toDto(saved);
+        return authorRepository.insertIfAbsent(dto.name())
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Author with name '" + dto.name() + "' already exists"));
     }
 
     @Transactional
     public AuthorResponseDto createOrReturnExisting(AuthorRequestDto dto) {
-        return authorRepository.findByName(dto.name())
-                .map(AuthorMapper::toDto)
-                .orElseGet(() -> create(dto));
+        return authorRepository.upsertAll(List.of(dto.name())).get(0);
+    }
+
+    /**
+     * Returns the author of every name, creating the missing ones, with one statement per thousand names.
+     *
+     * @return one author per distinct name, in the order the names first appear
+     */
+    @Transactional
+    public List<AuthorResponseDto> createOrReturnExisting(List<String> names) {
+        if (names.stream().anyMatch(name -> name == null || name.isBlank())) {
+            throw new IllegalArgumentException("Author names must not be blank");
+        }
+        Map<String, AuthorResponseDto> byName = new HashMap<>();
+        for (AuthorResponseDto author : authorRepository.upsertAll(names)) {
+            byName.put(author.name(), author);
+        }
+        return new LinkedHashSet<>(names).stream().map(byName::get).toList();
     }
 
     @Transactional
     public AuthorResponseDto update(Long id, AuthorRequestDto dto) {
-        Author author = authorRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Author not found with id " + id));
+        return update(id, dto, null);
+    }
 
-        if (!author.getName().equals(dto.name())
-                && authorRepository.existsByName(dto.name())) {
+    /**
+     * @param ifMatch {@code If-Match} header, {@code null} to rename any version
+     * @throws PreconditionFailedException if the author no longer has a version listed in {@code ifMatch}
+     */
+    @Transactional
+    public AuthorResponseDto update(Long id, AuthorRequestDto dto, String ifMatch) {
+        Long version = matchingVersion(id, ifMatch);
+        int renamed;
+        try {
+            renamed = authorRepository.rename(id, dto.name(), version);
+        } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("Author with name '" + dto.name() + "' already exists");
         }
-
-        author.setName(dto.name());
-        return AuthorMapper.toDto(author);
+        if (renamed == 0) {
+            throw notWritten(id, version);
+        }
+        // Cached pages of books show the name of their author.
+        bookSearchCache.evictAuthor(id);
+        return new AuthorResponseDto(id, dto.name());
     }
 
     @Transactional
     public void delete(Long id) {
-        Author author = authorRepository.findById(id)
+        delete(id, null);
+    }
+
+    /**
+     * @param ifMatch {@code If-Match} header, {@code null} to delete any version
+     * @throws PreconditionFailedException if the author no longer has a version listed in {@code ifMatch}
+     */
+    @Transactional
+    public void delete(Long id, String ifMatch) {
+        Long version = matchingVersion(id, ifMatch);
+        int removed = version == null
+                ? authorRepository.removeById(id)
+                : authorRepository.removeByIdAndVersion(id, version);
+        if (removed == 0) {
+            throw notWritten(id, version);
+        }
+        // The database deletes the books of the author without JPA noticing.
+        bookCountCache.invalidate();
+        bookSearchCache.evictAuthor(id);
+        bookIndex.ifAvailable(index -> index.authorRemoved(id));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evictCachedBooks();
+            }
+        });
+    }
+
+    /**
+     * @return the current version of the author if it matches {@code ifMatch}, or {@code null} without a condition;
+     * the write then only applies to that version, so a concurrent write in between is not overwritten
+     */
+    private Long matchingVersion(Long id, String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        long version = authorRepository.findVersionById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Author not found with id " + id));
-        authorRepository.delete(author);
+        if (!ETags.matches(ifMatch, ETags.of(version))) {
+            throw new PreconditionFailedException("Author was modified since it was read");
+        }
+        return version;
+    }
+
+    private static RuntimeException notWritten(Long id, Long version) {
+        return version == null
+                ? new ResourceNotFoundException("Author not found with id " + id)
+                : new PreconditionFailedException("Author was modified since it was read");
+    }
+
+    /**
+     * Drops all books and their genres from the second-level cache, which does not know which of them the database
+     * deleted along with an author.
+     */
+    private void evictCachedBooks() {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Book.class);
+        cache.evictCollectionData(Book.class.getName() + ".genres");
     }
 
     @Transactional(readOnly = true)
     public PaginatedResponseDto<AuthorResponseDto> getList(int page, int size) {
         Pageable pageable = PageRequest.of(page - 1, size, Sort.by("name"));
-        Page<Author> authors = authorRepository.findAll(pageable);
-        List<AuthorResponseDto> list = authors.stream()
-                .map(AuthorMapper::toDto)
-                .toList();
-        return new PaginatedResponseDto<>(list, authors.getTotalPages());
+        Page<AuthorResponseDto> authors = authorRepository.findResponses(pageable);
+        return new PaginatedResponseDto<>(authors.getContent(), authors.getTotalPages());
+    }
+
+    /**
+     * Returns the authors sorted by name and id that come after {@code after}, seeking on the unique name index
+     * instead of skipping an offset.
+     *
+     * @param after cursor returned with the previous page, or {@code null} for the first page
+     */
+    public CursorPageDto<AuthorResponseDto> getListAfter(String after, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        Limit limit = Limit.of(size + 1);
+        List<AuthorResponseDto> authors = cursor == null
+                ? authorRepository.findResponsesOrderByName(limit)
+                : authorRepository.findResponsesAfter(cursor.key(), cursor.id(), limit);
+        String nextCursor = null;
+        if (authors.size() > size) {
+            authors = authors.subList(0, size);
+            AuthorResponseDto last = authors.get(size - 1);
+            nextCursor = new KeysetCursor(last.name(), last.id()).encode();
+        }
+        return new CursorPageDto<>(List.copyOf(authors), nextCursor);
     }
 
 }
@@ -0,0 +1,261 @@
+package org.bookApi.service;
+
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bookApi.dto.BookBulkUpdateDto;
+import org.bookApi.dto.BookRequestDto;
+import org.bookApi.dto.BulkItemResultDto;
+import org.bookApi.dto.BulkResponseDto;
+import org.bookApi.entity.Author;
+import org.bookApi.entity.Book;
+import org.bookApi.mapper.BookMapper;
+import org.bookApi.repository.AuthorRepository;
+import org.bookApi.repository.BookRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes many books per request and reports the outcome of every item, like the single book endpoints would have.
+ * <p>
+ * Every item is validated first, with one query for all the authors and one for all the books that could clash on
+ * title and author. The valid items are then written in the same transaction: created and updated books through JPA,
+ * which sends the statements in JDBC batches of {@code hibernate.jdbc.batch_size}, deleted books with a single
+ * {@code DELETE ... WHERE id IN} that leaves their genres to the {@code ON DELETE CASCADE}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class BookBulkService {
+
+    static final int MAX_ITEMS = 1_000;
+
+    private static final int CREATED = 201;
+    private static final int OK = 200;
+    private static final int NO_CONTENT = 204;
+    private static final int BAD_REQUEST = 400;
+    private static final int NOT_FOUND = 404;
+    private static final int CONFLICT = 409;
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final Validator validator;
+    private final BookDeleteInvalidator bookDeleteInvalidator;
+
+    public BulkResponseDto create(List<BookRequestDto> items) {
+        BulkItemResultDto[] results = new BulkItemResultDto[checkSize(items).size()];
+        List<Integer> valid = validate(items, item -> null, results);
+        Map<Long, Author> authors = findAuthors(items, valid, item -> null, BookRequestDto::authorId, results);
+        Set<BookKey> taken = new HashSet<>(findOwners(items, valid, Function.identity(), results).keySet());
+
+        for (int i : valid) {
+            if (results[i] != null) {
+                continue;
+            }
+            BookRequestDto item = items.get(i);
+            if (!taken.add(BookKey.of(item))) {
+                results[i] = failure(i, null, CONFLICT, "Book with this title and author already exists");
+                continue;
+            }
+            Book book = bookRepository.save(BookMapper.toEntity(item, authors.get(item.authorId())));
+            results[i] = new BulkItemResultDto(i, book.getId(), CREATED, null);
+        }
+        return toResponse(results);
+    }
+
+    public BulkResponseDto update(List<BookBulkUpdateDto> items) {
+        BulkItemResultDto[] results = new BulkItemResultDto[checkSize(items).size()];
+        List<Integer> valid = validate(items, BookBulkUpdateDto::id, results);
+
+        Set<Long> ids = new HashSet<>();
+        for (int i : valid) {
+            if (!ids.add(items.get(i).id())) {
+                results[i] = failure(i, items.get(i).id(), BAD_REQUEST, "Book is updated twice in this request");
+            }
+        }
+        Map<Long, Book> books = new HashMap<>();
+        for (Book book : bookRepository.findAllById(ids)) {
+            books.put(book.getId(), book);
+        }
+        for (int i : valid) {
+            if (results[i] == null && !books.containsKey(items.get(i).id())) {
+                results[i] = failure(i, items.get(i).id(), NOT_FOUND, "Book not found");
+            }
+        }
+        Map<Long, Author> authors = findAuthors(items, valid, BookBulkUpdateDto::id, BookBulkUpdateDto::authorId,
+                results);
+        Map<BookKey, Long> owners = findOwners(items, valid, BookBulkUpdateDto::toRequest, results);
+        // Keys given up in this request stay taken: the order of the updates in the flush is not known.
+        books.values().forEach(book -> owners.put(new BookKey(book.getTitleKey(), book.getAuthor().getId()),
+                book.getId()));
+
+        for (int i : valid) {
+            if (results[i] != null) {
+                continue;
+            }
+            BookBulkUpdateDto item = items.get(i);
+            Long owner = owners.putIfAbsent(BookKey.of(item.toRequest()), item.id());
+            if (owner != null && !owner.equals(item.id())) {
+                results[i] = failure(i, item.id(), CONFLICT, "Book with this title and author already exists");
+                continue;
+            }
+            apply(books.get(item.id()), item, authors.get(item.authorId()));
+            results[i] = new BulkItemResultDto(i, item.id(), OK, null);
+        }
+        return toResponse(results);
+    }
+
+    public BulkResponseDto delete(List<Long> ids) {
+        BulkItemResultDto[] results = new BulkItemResultDto[checkSize(ids).size()];
+        Set<Long> requested = new LinkedHashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) == null) {
+                results[i] = failure(i, null, BAD_REQUEST, "ID must not be null");
+            } else {
+                requested.add(ids.get(i));
+            }
+        }
+
+        List<Book> deleted = bookRepository.deleteAllByIdReturning(requested);
+        bookDeleteInvalidator.booksDeleted(deleted);
+
+        Set<Long> deletedIds = deleted.stream().map(Book::getId).collect(Collectors.toSet());
+        for (int i = 0; i < ids.size(); i++) {
+            if (results[i] == null) {
+                results[i] = deletedIds.contains(ids.get(i))
+                        ? new BulkItemResultDto(i, ids.get(i), NO_CONTENT, null)
+                        : failure(i, ids.get(i), NOT_FOUND, "Book not found");
+            }
+        }
+        return toResponse(results);
+    }
+
+    /**
+     * Writes the item into the book, unless nothing changed, so unchanged books are not written at all.
+     */
+    private void apply(Book book, BookBulkUpdateDto item, Author author) {
+        List<String> genres = item.genres() == null ? new ArrayList<>() : new ArrayList<>(item.genres());
+        long contentHash = Book.contentHash(item.title(), item.yearPublished(), genres);
+        if (Objects.equals(book.getContentHash(), contentHash) && book.getAuthor().getId().equals(author.getId())) {
+            return;
+        }
+        book.setTitle(item.title());
+        book.setAuthor(author);
+        book.setYearPublished(item.yearPublished());
+        book.setGenres(genres);
+        book.refreshDerivedColumns();
+    }
+
+    private <T> List<T> checkSize(List<T> items) {
+        if (items.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("At most " + MAX_ITEMS + " items can be written at once");
+        }
+        return items;
+    }
+
+    /**
+     * Records a failure for every item that is missing or breaks its constraints.
+     *
+     * @return the indexes of the other items
+     */
+    private <T> List<Integer> validate(List<T> items, Function<T, Long> id, BulkItemResultDto[] results) {
+        List<Integer> valid = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            if (item == null) {
+                results[i] = failure(i, null, BAD_REQUEST, "Item must not be null");
+                continue;
+            }
+            List<String> errors = new ArrayList<>();
+            validator.validate(item).forEach(violation ->
+                    errors.add(violation.getPropertyPath() + ": " + violation.getMessage()));
+            // Books cannot be stored without a year, though single writes do not declare it.
+            if (item instanceof BookRequestDto book && book.yearPublished() == null) {
+                errors.add("yearPublished: must not be null");
+            }
+            if (errors.isEmpty()) {
+                valid.add(i);
+            } else {
+                results[i] = failure(i, id.apply(item), BAD_REQUEST,
+                        errors.stream().sorted().collect(Collectors.joining("; ")));
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Loads the authors of the pending items with one query, recording a failure for items whose author is missing.
+     */
+    private <T> Map<Long, Author> findAuthors(List<T> items, List<Integer> valid, Function<T, Long> id,
+                                              Function<T, Long> authorId, BulkItemResultDto[] results) {
+        Set<Long> ids = new HashSet<>();
+        for (int i : valid) {
+            if (results[i] == null) {
+                ids.add(authorId.apply(items.get(i)));
+            }
+        }
+        Map<Long, Author> authors = new HashMap<>();
+        for (Author author : authorRepository.findAllById(ids)) {
+            authors.put(author.getId(), author);
+        }
+        for (int i : valid) {
+            if (results[i] == null && !authors.containsKey(authorId.apply(items.get(i)))) {
+                results[i] = failure(i, id.apply(items.get(i)), NOT_FOUND, "Author not found");
+            }
+        }
+        return authors;
+    }
+
+    /**
+     * @return the ids of the existing books that hold the title and author of a pending item, with one query
+     */
+    private <T> Map<BookKey, Long> findOwners(List<T> items, List<Integer> valid, Function<T, BookRequestDto> request,
+                                              BulkItemResultDto[] results) {
+        Set<String> titleKeys = new HashSet<>();
+        Set<Long> authorIds = new HashSet<>();
+        for (int i : valid) {
+            if (results[i] == null) {
+                BookRequestDto item = request.apply(items.get(i));
+                titleKeys.add(Book.titleKey(item.title()));
+                authorIds.add(item.authorId());
+            }
+        }
+        Map<BookKey, Long> owners = new HashMap<>();
+        if (!titleKeys.isEmpty()) {
+            for (Book book : bookRepository.findAllByTitleKeyInAndAuthorIdIn(titleKeys, authorIds)) {
+                owners.put(new BookKey(book.getTitleKey(), book.getAuthor().getId()), book.getId());
+            }
+        }
+        return owners;
+    }
+
+    private static BulkItemResultDto failure(int index, Long id, int status, String error) {
+        return new BulkItemResultDto(index, id, status, error);
+    }
+
+    private static BulkResponseDto toResponse(BulkItemResultDto[] results) {
+        int succeeded = (int) Arrays.stream(results).filter(result -> result.status() < BAD_REQUEST).count();
+        log.info("Bulk write of {} books: {} succeeded", results.length, succeeded);
+        return new BulkResponseDto(List.of(results), succeeded, results.length - succeeded);
+    }
+
+    private record BookKey(String titleKey, long authorId) {
+
+        static BookKey of(BookRequestDto book) {
+            return new BookKey(Book.titleKey(book.title()), book.authorId());
+        }
+    }
+}
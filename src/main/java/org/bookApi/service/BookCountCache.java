@@ -0,0 +1,78 @@
+package org.bookApi.service;
+
+import org.bookApi.search.GenreFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Number of books matching each combination of list filters, so paginated lists do not run a count query on every
+ * request. Books written through JPA invalidate it via {@link BookCountInvalidator}; writes that bypass JPA must call
+ * {@link #invalidate()} themselves.
+ */
+@Component
+public class BookCountCache {
+
+    private static final int MAX_ENTRIES = 1_000;
+
+    private final Map<Key, Entry> counts = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @return the cached count for the filters, or the result of {@code counter}, which is cached unless books were
+     * written while it ran
+     */
+    public long get(Long authorId, String title, Integer year, GenreFilter genres, LongSupplier counter) {
+        Key key = new Key(authorId, title == null || title.isBlank() ? null : title.toLowerCase(Locale.ROOT), year,
+                genres);
+        long current = generation.get();
+        Entry entry = counts.get(key);
+        if (entry != null && entry.generation() == current) {
+            return entry.count();
+        }
+        long count = counter.getAsLong();
+        if (counts.size() >= MAX_ENTRIES) {
+            counts.clear();
+        }
+        if (generation.get() == current) {
+            counts.put(key, new Entry(current, count));
+        }
+        return count;
+    }
+
+    /**
+     * Drops all counts, once right away and, inside a transaction, once more when it completes, so a count taken
+     * before the write becomes visible is not kept.
+     */
+    public void invalidate() {
+        clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BookCountCache.this);
+                    clear();
+                }
+            });
+        }
+    }
+
+    private void clear() {
+        generation.incrementAndGet();
+        counts.clear();
+    }
+
+    private record Key(Long authorId, String title, Integer year, GenreFilter genres) {
+    }
+
+    private record Entry(long generation, long count) {
+    }
+}
@@ -0,0 +1,25 @@
+package org.bookApi.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.bookApi.entity.Book;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity listener of {@link Book} that drops the cached book counts whenever a book is written through JPA.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookCountInvalidator {
+
+    private final BookCountCache bookCountCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void bookWritten(Book book) {
+        bookCountCache.invalidate();
+    }
+}
@@ -0,0 +1,31 @@
+package org.bookApi.service;
+
+import lombok.RequiredArgsConstructor;
+import org.bookApi.entity.Book;
+import org.bookApi.search.BookIndex;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Passes books deleted with plain SQL, see {@link org.bookApi.repository.BookDeleteRepository}, on to the caches that
+ * the entity listeners of {@link Book} keep up to date for writes through JPA.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookDeleteInvalidator {
+
+    private final BookCountCache bookCountCache;
+    private final BookSearchCache bookSearchCache;
+    private final ObjectProvider<BookIndex> bookIndex;
+
+    public void booksDeleted(List<Book> deleted) {
+        if (deleted.isEmpty()) {
+            return;
+        }
+        bookCountCache.invalidate();
+        deleted.forEach(bookSearchCache::bookWritten);
+        bookIndex.ifAvailable(index -> deleted.forEach(book -> index.bookRemoved(book.getId())));
+    }
+}
@@ -0,0 +1,114 @@
+package org.bookApi.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bookApi.config.BookImportProperties;
+import org.bookApi.dto.ImportJobDto;
+import org.bookApi.exception.ResourceNotFoundException;
+import org.bookApi.importer.ImportFormat;
+import org.bookApi.importer.ImportJob;
+import org.bookApi.importer.ImportOptions;
+import org.bookApi.importer.ImportProgress;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs book imports in the background and keeps their progress until they expire.
+ */
+@Service
+@Slf4j
+public class BookImportJobService {
+
+    private final BookImportService bookImportService;
+    private final BookImportProperties importProperties;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    public BookImportJobService(BookImportService bookImportService, BookImportProperties importProperties) {
+        this.bookImportService = bookImportService;
+        this.importProperties = importProperties;
+        this.executor = new ThreadPoolExecutor(
+                importProperties.maxConcurrentJobs(), importProperties.maxConcurrentJobs(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(importProperties.queueCapacity()),
+                Thread.ofVirtual().name("book-import-", 0).factory());
+    }
+
+    /**
+     * Copies the upload to a temporary file, since the multipart content is gone once the request completes,
+     * and queues its import.
+     *
+     * @throws RejectedExecutionException if the maximum number of running and queued imports is reached
+     */
+    public ImportJobDto submit(MultipartFile file, ImportOptions options) throws IOException {
+        ImportFormat format = ImportFormat.detect(file.getContentType(), file.getOriginalFilename());
+        Path upload = Files.createTempFile("book-import-", ".upload");
+        file.transferTo(upload);
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), importProperties.maxReportedFailures());
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, upload, format, options));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+        log.info("Queued import job {} for file {}", job.getId(), file.getOriginalFilename());
+        return job.toDto();
+    }
+
+    public ImportJobDto getStatus(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job not found");
+        }
+        return job.toDto();
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void evictExpiredJobs() {
+        Instant now = Instant.now();
+        jobs.values().removeIf(job -> job.isExpired(now, importProperties.jobTtl()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(ImportJob job, Path upload, ImportFormat format, ImportOptions options) {
+        job.start();
+        try (InputStream in = Files.newInputStream(upload)) {
+            ImportProgress progress = job.getProgress();
+            bookImportService.importBooks(in, format, options, progress);
+            job.complete();
+            log.info("Import job {} completed: {} imported, {} failed",
+                    job.getId(), progress.successCount(), progress.failedCount());
+        } catch (Exception e) {
+            log.error("Import job {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(upload);
+            } catch (IOException e) {
+                log.warn("Could not delete upload {} of import job {}", upload, job.getId());
+            }
+        }
+    }
+}
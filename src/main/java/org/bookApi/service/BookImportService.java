@@ -0,0 +1,433 @@
+package org.bookApi.service;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.bookApi.config.BookImportProperties;
+import org.bookApi.config.DatabaseDialect;
+import org.bookApi.dto.BookRequestDto;
+import org.bookApi.entity.Author;
+import org.bookApi.entity.Book;
+import org.bookApi.exception.ImportFailedException;
+import org.bookApi.importer.AuthorCache;
+import org.bookApi.importer.BookCopyLoader;
+import org.bookApi.importer.BookReader;
+import org.bookApi.importer.ImportFormat;
+import org.bookApi.importer.ImportMode;
+import org.bookApi.importer.ImportOptions;
+import org.bookApi.importer.ImportProgress;
+import org.bookApi.importer.ImportRecord;
+import org.bookApi.mapper.BookMapper;
+import org.bookApi.repository.AuthorRepository;
+import org.bookApi.repository.BookRepository;
+import org.bookApi.search.BookIndex;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams uploaded books into the database chunk by chunk, in any of the {@link ImportFormat}s.
+ * <p>
+ * Every chunk is committed in its own transaction, so the persistence context never holds more than one chunk
+ * and a failing book only costs its own chunk: that chunk is rolled back and retried book by book, each in a
+ * separate transaction, so that only the offending books are reported as failed. Called inside an existing
+ * transaction, chunks join it instead.
+ * <p>
+ * In {@link ImportMode#COPY} chunks are loaded with PostgreSQL {@code COPY} where available, while the row by row
+ * retry of a failed chunk always goes through JPA. In {@link ImportMode#UPSERT} books are matched on normalized
+ * title and author, and existing ones are only written when their content changed.
+ */
+@Service
+@Slf4j
+public class BookImportService {
+
+    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+    private final BookCountCache bookCountCache;
+    private final BookSearchCache bookSearchCache;
+    private final ObjectProvider<BookIndex> bookIndex;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final DatabaseDialect databaseDialect;
+    private final BookImportProperties importProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+
+    public BookImportService(AuthorRepository authorRepository,
+                             BookRepository bookRepository,
+                             BookCountCache bookCountCache,
+                             BookSearchCache bookSearchCache,
+                             ObjectProvider<BookIndex> bookIndex,
+                             ObjectMapper objectMapper,
+                             EntityManager entityManager,
+                             DatabaseDialect databaseDialect,
+                             BookImportProperties importProperties,
+                             PlatformTransactionManager transactionManager) {
+        this.authorRepository = authorRepository;
+        this.bookRepository = bookRepository;
+        this.bookCountCache = bookCountCache;
+        this.bookSearchCache = bookSearchCache;
+        this.bookIndex = bookIndex;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.databaseDialect = databaseDialect;
+        this.importProperties = importProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // A failing chunk must not mark a caller's transaction rollback-only or clear its persistence context.
+        this.transactionTemplate.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        this.workers = Executors.newFixedThreadPool(importProperties.parallelWorkers(),
+                Thread.ofVirtual().name("book-import-worker-", 0).factory());
+    }
+
+    /**
+     * Imports the books of {@code in}, recording the outcome of every book in {@code progress} as it goes.
+     * Chunks committed before a parse error stay committed.
+     *
+     * @throws ImportFailedException if the file cannot be read to the end, with the progress made until then
+     */
+    public void importBooks(InputStream in, ImportFormat format, ImportOptions options, ImportProgress progress)
+            throws IOException {
+        long row = 0;
+        List<ImportRecord> chunk = new ArrayList<>(importProperties.chunkSize());
+        AuthorCache authors = new AuthorCache();
+        Map<String, Author> authorsByName = new HashMap<>();
+        ChunkDispatcher dispatcher = options.parallel()
+                ? new ParallelDispatcher(importProperties.parallelWorkers())
+                : Runnable::run;
+
+        try (BookReader reader = format.open(objectMapper, in)) {
+            ImportRecord record;
+            while ((record = reader.next()) != null) {
+                chunk.add(record);
+                if (chunk.size() == importProperties.chunkSize()) {
+                    dispatchChunk(dispatcher, chunk, row + 1, authors, authorsByName, options, progress);
+                    row += chunk.size();
+                    chunk = new ArrayList<>(importProperties.chunkSize());
+                }
+            }
+            dispatchChunk(dispatcher, chunk, row + 1, authors, authorsByName, options, progress);
+        } catch (JsonProcessingException e) {
+            JsonLocation location = e.getLocation();
+            throw new ImportFailedException(location == null ? "Invalid JSON file"
+                    : "Invalid JSON file at line " + location.getLineNr() + ", column " + location.getColumnNr(),
+                    progress);
+        } catch (IllegalArgumentException e) {
+            throw new ImportFailedException(e.getMessage(), progress);
+        } finally {
+            dispatcher.awaitCompletion();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Resolves the authors of the chunk on the calling thread, so the author cache is only ever touched by the
+     * reader, then hands the chunk over for persisting.
+     */
+    private void dispatchChunk(ChunkDispatcher dispatcher, List<ImportRecord> records, long firstRow,
+                               AuthorCache authors, Map<String, Author> authorsByName,
+                               ImportOptions options, ImportProgress progress) {
+        if (records.isEmpty()) {
+            return;
+        }
+        resolveAuthorNames(records, authors, authorsByName);
+        List<BookRequestDto> chunk = new ArrayList<>(records.size());
+        for (ImportRecord record : records) {
+            BookRequestDto dto = record.book();
+            if (record.needsAuthorLookup()) {
+                Author author = authorsByName.get(record.authorName());
+                dto = new BookRequestDto(dto.title(), author == null ? null : author.getId(),
+                        dto.yearPublished(), dto.genres());
+            }
+            chunk.add(dto);
+        }
+        resolveAuthors(chunk, authors);
+        List<Author> chunkAuthors = new ArrayList<>(chunk.size());
+        for (BookRequestDto dto : chunk) {
+            chunkAuthors.add(dto.authorId() == null ? null : authors.get(dto.authorId()));
+        }
+        dispatcher.dispatch(() -> persistChunk(chunk, chunkAuthors, firstRow, options.mode(), progress));
+    }
+
+    private void persistChunk(List<BookRequestDto> chunk, List<Author> chunkAuthors, long firstRow,
+                              ImportMode mode, ImportProgress progress) {
+        List<Integer> valid = new ArrayList<>(chunk.size());
+        List<BookRequestDto> books = new ArrayList<>(chunk.size());
+        List<Author> authors = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (chunkAuthors.get(i) == null) {
+                rejectRow(progress, firstRow + i, chunk.get(i), "Author not found");
+            } else if (chunk.get(i).yearPublished() == null) {
+                rejectRow(progress, firstRow + i, chunk.get(i), "Year published is missing or not a number");
+            } else {
+                valid.add(i);
+                books.add(chunk.get(i));
+                authors.add(chunkAuthors.get(i));
+            }
+        }
+
+        try {
+            record(progress, writeBooks(books, authors, mode));
+        } catch (RuntimeException chunkFailure) {
+            log.warn("Chunk starting at row {} failed, retrying its books one by one: {}",
+                    firstRow, chunkFailure.getMessage());
+            ImportMode rowMode = mode == ImportMode.COPY ? ImportMode.JPA : mode;
+            for (int i : valid) {
+                persistRow(chunk.get(i), chunkAuthors.get(i), firstRow + i, rowMode, progress);
+            }
+        }
+    }
+
+    /**
+     * Writes the books in one transaction and detaches them afterwards.
+     */
+    private WriteResult writeBooks(List<BookRequestDto> books, List<Author> authors, ImportMode mode) {
+        return transactionTemplate.execute(status -> {
+            WriteResult result;
+            if (mode == ImportMode.UPSERT) {
+                result = upsertBooks(books, authors);
+            } else if (mode == ImportMode.COPY && copyBooks(books)) {
+                invalidateCachesOnCompletion();
+                bookIndex.ifAvailable(BookIndex::invalidate);
+                result = new WriteResult(books.size(), 0, 0);
+            } else {
+                for (int i = 0; i < books.size(); i++) {
+                    entityManager.persist(BookMapper.toEntity(books.get(i), authors.get(i)));
+                }
+                result = new WriteResult(books.size(), 0, 0);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return result;
+        });
+    }
+
+    /**
+     * Inserts the books that do not exist yet, keyed on normalized title and author, and updates existing ones
+     * only when their content hash differs, so unchanged books are never written.
+     */
+    private WriteResult upsertBooks(List<BookRequestDto> books, List<Author> authors) {
+        List<Book> candidates = new ArrayList<>(books.size());
+        Set<String> titleKeys = new HashSet<>();
+        Set<Long> authorIds = new HashSet<>();
+        for (int i = 0; i < books.size(); i++) {
+            Book candidate = BookMapper.toEntity(books.get(i), authors.get(i));
+            candidate.refreshDerivedColumns();
+            candidates.add(candidate);
+            if (candidate.getTitleKey() != null) {
+                titleKeys.add(candidate.getTitleKey());
+                authorIds.add(authors.get(i).getId());
+            }
+        }
+
+        Map<BookKey, Book> existing = new HashMap<>();
+        if (!titleKeys.isEmpty()) {
+            for (Book book : bookRepository.findAllByTitleKeyInAndAuthorIdIn(titleKeys, authorIds)) {
+                existing.put(new BookKey(book.getTitleKey(), book.getAuthor().getId()), book);
+            }
+        }
+
+        int inserted = 0;
+        int updated = 0;
+        int unchanged = 0;
+        for (Book candidate : candidates) {
+            BookKey key = new BookKey(candidate.getTitleKey(), candidate.getAuthor().getId());
+            Book current = existing.get(key);
+            if (current == null) {
+                entityManager.persist(candidate);
+                existing.put(key, candidate);
+                inserted++;
+            } else if (Objects.equals(current.getContentHash(), candidate.getContentHash())) {
+                unchanged++;
+            } else {
+                current.setTitle(candidate.getTitle());
+                current.setYearPublished(candidate.getYearPublished());
+                current.setGenres(candidate.getGenres());
+                current.refreshDerivedColumns();
+                updated++;
+            }
+        }
+        return new WriteResult(inserted, updated, unchanged);
+    }
+
+    /**
+     * Drops the cached counts and pages once the transaction completes, since {@code COPY} bypasses the JPA listeners.
+     * Dropping them earlier would let a concurrent reader cache a page from before the commit, and keep it.
+     */
+    private void invalidateCachesOnCompletion() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                bookCountCache.invalidate();
+                bookSearchCache.clear();
+            }
+        });
+    }
+
+    /**
+     * Loads the books with PostgreSQL {@code COPY} on the connection of the current transaction.
+     *
+     * @return {@code false} if the database does not support {@code COPY} and nothing was written
+     */
+    private boolean copyBooks(List<BookRequestDto> books) {
+        if (!databaseDialect.isPostgres()) {
+            return false;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> new BookCopyLoader(connection).load(books));
+        return true;
+    }
+
+    private void persistRow(BookRequestDto dto, Author author, long row, ImportMode mode, ImportProgress progress) {
+        try {
+            record(progress, writeBooks(List.of(dto), List.of(author), mode));
+        } catch (RuntimeException ex) {
+            rejectRow(progress, row, dto, NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+        }
+    }
+
+    private void record(ImportProgress progress, WriteResult result) {
+        progress.inserted(result.inserted());
+        progress.updated(result.updated());
+        progress.unchanged(result.unchanged());
+    }
+
+    /**
+     * Loads, with a single query, every author of the chunk that has not been seen earlier in the import.
+     */
+    private void resolveAuthors(List<BookRequestDto> chunk, AuthorCache authors) {
+        Set<Long> unresolved = new HashSet<>();
+        for (BookRequestDto dto : chunk) {
+            if (dto.authorId() != null && !authors.isResolved(dto.authorId())) {
+                unresolved.add(dto.authorId());
+            }
+        }
+        if (unresolved.isEmpty()) {
+            return;
+        }
+        for (Author author : authorRepository.findAllById(unresolved)) {
+            authors.put(author);
+            unresolved.remove(author.getId());
+        }
+        unresolved.forEach(authors::putMissing);
+    }
+
+    /**
+     * Loads, with a single query, every author of the chunk referenced by a name that has not been seen earlier
+     * in the import. Names without an author are remembered as {@code null}.
+     */
+    private void resolveAuthorNames(List<ImportRecord> records, AuthorCache authors,
+                                    Map<String, Author> authorsByName) {
+        Set<String> unresolved = new HashSet<>();
+        for (ImportRecord record : records) {
+            if (record.needsAuthorLookup() && !authorsByName.containsKey(record.authorName())) {
+                unresolved.add(record.authorName());
+            }
+        }
+        if (unresolved.isEmpty()) {
+            return;
+        }
+        for (Author author : authorRepository.findAllByNameIn(unresolved)) {
+            authors.put(author);
+            authorsByName.put(author.getName(), author);
+            unresolved.remove(author.getName());
+        }
+        unresolved.forEach(name -> authorsByName.put(name, null));
+    }
+
+    private void rejectRow(ImportProgress progress, long row, BookRequestDto dto, String reason) {
+        log.warn("Failed to import book '{}': {}", dto.title(), reason);
+        progress.failed(row, dto.title(), reason);
+    }
+
+    private record WriteResult(int inserted, int updated, int unchanged) {
+    }
+
+    private record BookKey(String titleKey, long authorId) {
+    }
+
+    private interface ChunkDispatcher {
+
+        void dispatch(Runnable chunkTask);
+
+        default void awaitCompletion() {
+        }
+    }
+
+    /**
+     * Persists the chunks of one import on the shared worker pool, with at most {@code parallelism} of them in
+     * flight so that a fast reader cannot buffer the whole file in memory.
+     */
+    private final class ParallelDispatcher implements ChunkDispatcher {
+
+        private final Semaphore permits;
+        private final Queue<Future<?>> inFlight = new ConcurrentLinkedQueue<>();
+
+        private ParallelDispatcher(int parallelism) {
+            this.permits = new Semaphore(parallelism);
+        }
+
+        @Override
+        public void dispatch(Runnable chunkTask) {
+            permits.acquireUninterruptibly();
+            try {
+                inFlight.add(workers.submit(() -> {
+                    try {
+                        chunkTask.run();
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+            inFlight.removeIf(future -> future.state() == Future.State.SUCCESS);
+        }
+
+        @Override
+        public void awaitCompletion() {
+            RuntimeException failure = null;
+            for (Future<?> future : inFlight) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failure = new IllegalStateException("Import chunk failed", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure = new IllegalStateException("Import interrupted", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
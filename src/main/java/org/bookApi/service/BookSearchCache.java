@@ -0,0 +1,234 @@
+package org.bookApi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bookApi.config.BookSearchCacheProperties;
+import org.bookApi.dto.BookResponseDto;
+import org.bookApi.dto.PaginatedResponseDto;
+import org.bookApi.entity.Book;
+import org.bookApi.search.GenreFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Pages returned by {@link BookService#getList}, bounded in number and age.
+ * <p>
+ * Books written through JPA (see {@link BookSearchCacheInvalidator}) drop only the pages whose filters the book
+ * matched before or after the write, judged by author, year and title; this happens when the writing transaction
+ * completes. Until then that transaction reads around the cache, so pages holding its uncommitted writes are never
+ * cached. Writes that bypass JPA must call {@link #clear()} or {@link #evictAuthor(long)} themselves.
+ * <p>
+ * Publishes {@code book.search.cache.requests} tagged with {@code result=hit|miss},
+ * {@code book.search.cache.evictions} tagged with the {@code cause}, and the {@code book.search.cache.size} gauge.
+ */
+@Component
+public class BookSearchCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final AtomicLong generation = new AtomicLong();
+
+    /** Least recently used first; guarded by itself. */
+    private final LinkedHashMap<Key, CachedPage> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter expired;
+    private final Counter evictedBySize;
+    private final Counter evictedByWrite;
+
+    public BookSearchCache(BookSearchCacheProperties properties, MeterRegistry meterRegistry) {
+        this.maxEntries = properties.maxEntries();
+        this.ttlNanos = properties.ttl().toNanos();
+        this.hits = meterRegistry.counter("book.search.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("book.search.cache.requests", "result", "miss");
+        this.expired = meterRegistry.counter("book.search.cache.evictions", "cause", "expired");
+        this.evictedBySize = meterRegistry.counter("book.search.cache.evictions", "cause", "size");
+        this.evictedByWrite = meterRegistry.counter("book.search.cache.evictions", "cause", "write");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedPage> eldest) {
+                if (size() > maxEntries) {
+                    evictedBySize.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("book.search.cache.size", this, BookSearchCache::size).register(meterRegistry);
+    }
+
+    /**
+     * @return the cached page for the filters, or the result of {@code loader}, which is cached unless books were
+     * written meanwhile
+     */
+    public PaginatedResponseDto<BookResponseDto> get(Long authorId, String title, Integer year, GenreFilter genres,
+                                                     int page, int size,
+                                                     Supplier<PaginatedResponseDto<BookResponseDto>> loader) {
+        if (maxEntries <= 0 || hasUncommittedWrites()) {
+            return loader.get();
+        }
+        Key key = new Key(authorId, title == null || title.isBlank() ? null : Book.titleKey(title), year, genres,
+                page, size);
+        long now = System.nanoTime();
+        synchronized (entries) {
+            CachedPage entry = entries.get(key);
+            if (entry != null) {
+                if (now - entry.createdAt() < ttlNanos) {
+                    hits.increment();
+                    return entry.page();
+                }
+                entries.remove(key);
+                expired.increment();
+            }
+        }
+        misses.increment();
+
+        long current = generation.get();
+        PaginatedResponseDto<BookResponseDto> loaded = loader.get();
+        synchronized (entries) {
+            if (generation.get() == current) {
+                entries.put(key, new CachedPage(loaded, now));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops all pages, for writes that cannot tell which books they touched: right away and, inside a transaction,
+     * once more when it completes, so a page read by another transaction before the commit is not kept.
+     */
+    public void clear() {
+        evict(key -> true);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(key -> true);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops the pages that may hold books of the author, for writes to the author itself. Inside a transaction this
+     * happens when it completes.
+     */
+    public void evictAuthor(long authorId) {
+        Predicate<Key> affected = key -> key.authorId() == null || key.authorId() == authorId;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(affected);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evict(affected);
+            }
+        });
+    }
+
+    void bookLoaded(Book book) {
+        Pending pending = pending(false);
+        if (pending != null) {
+            pending.loaded().putIfAbsent(book.getId(), BookState.of(book));
+        }
+    }
+
+    void bookWritten(Book book) {
+        BookState after = BookState.of(book);
+        Pending pending = pending(true);
+        if (pending == null) {
+            evict(key -> key.mayContain(after));
+            return;
+        }
+        pending.written().add(after);
+        BookState before = pending.loaded().get(book.getId());
+        if (before != null) {
+            pending.written().add(before);
+        }
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void evict(Predicate<Key> affected) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            int before = entries.size();
+            entries.keySet().removeIf(affected);
+            evictedByWrite.increment(before - entries.size());
+        }
+    }
+
+    private boolean hasUncommittedWrites() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        return pending != null && !pending.written().isEmpty();
+    }
+
+    /**
+     * @return the books loaded and written in the current read-write transaction, or {@code null} outside of one
+     */
+    private Pending pending(boolean writing) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || (!writing && TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+            return null;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Pending bound = new Pending(new HashMap<>(), new ArrayList<>());
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BookSearchCache.this);
+                    if (!bound.written().isEmpty()) {
+                        evict(key -> bound.written().stream().anyMatch(key::mayContain));
+                    }
+                }
+            });
+            pending = bound;
+        }
+        return pending;
+    }
+
+    private record Key(Long authorId, String titleKey, Integer year, GenreFilter genres, int page, int size) {
+
+        /**
+         * Whether a book in {@code state} matches the filters. Genres are not compared, so pages filtered by genre are
+         * dropped by any otherwise matching write.
+         */
+        boolean mayContain(BookState state) {
+            return (authorId == null || authorId == state.authorId())
+                    && (year == null || year == state.year())
+                    && (titleKey == null || state.titleKey() == null || state.titleKey().contains(titleKey));
+        }
+    }
+
+    private record CachedPage(PaginatedResponseDto<BookResponseDto> page, long createdAt) {
+    }
+
+    private record BookState(long authorId, int year, String titleKey) {
+
+        static BookState of(Book book) {
+            return new BookState(book.getAuthor().getId(), book.getYearPublished(), Book.titleKey(book.getTitle()));
+        }
+    }
+
+    private record Pending(Map<Long, BookState> loaded, List<BookState> written) {
+    }
+}
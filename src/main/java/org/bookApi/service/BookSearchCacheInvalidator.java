@@ -0,0 +1,32 @@
+package org.bookApi.service;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.bookApi.entity.Book;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity listener of {@link Book} that tells the {@link BookSearchCache} which books were written through JPA, and
+ * what they looked like when loaded, so it can drop just the pages they may appear on.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookSearchCacheInvalidator {
+
+    private final BookSearchCache bookSearchCache;
+
+    @PostLoad
+    public void bookLoaded(Book book) {
+        bookSearchCache.bookLoaded(book);
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void bookWritten(Book book) {
+        bookSearchCache.bookWritten(book);
+    }
+}
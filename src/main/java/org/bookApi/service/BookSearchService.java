@@ -0,0 +1,138 @@
+package org.bookApi.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.bookApi.config.DatabaseDialect;
+import org.bookApi.dto.BookSearchHitDto;
+import org.bookApi.repository.BookRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Ranked full-text search over book titles, author names and genres.
+ * <p>
+ * On PostgreSQL the search runs against the {@code search_vector} column, which triggers keep up to date and a GIN
+ * index serves, so only matching books are ranked. Other databases fall back to matching every token with
+ * {@code LIKE} and ranking by the fields each word occurs in, which scans the table and is meant for development
+ * only.
+ */
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class BookSearchService {
+
+    private static final String POSTGRES_SEARCH = """
+            SELECT b.id, ts_rank_cd(b.search_vector, q) AS rank
+            FROM books b, websearch_to_tsquery('simple', :query) q
+            WHERE b.search_vector @@ q
+            ORDER BY rank DESC, b.id
+            LIMIT :limit""";
+
+    private static final double TITLE_WEIGHT = 1.0;
+    private static final double AUTHOR_WEIGHT = 0.4;
+    private static final double GENRE_WEIGHT = 0.2;
+
+    private final EntityManager entityManager;
+    private final BookRepository bookRepository;
+    private final DatabaseDialect databaseDialect;
+
+    public BookSearchService(EntityManager entityManager, BookRepository bookRepository,
+                             DatabaseDialect databaseDialect) {
+        this.entityManager = entityManager;
+        this.bookRepository = bookRepository;
+        this.databaseDialect = databaseDialect;
+    }
+
+    /**
+     * @return at most {@code limit} books matching every word of {@code query}, most relevant first
+     */
+    public List<BookSearchHitDto> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must not be less than one");
+        }
+        return databaseDialect.isPostgres() ? searchPostgres(query, limit) : searchByTokens(query, limit);
+    }
+
+    private List<BookSearchHitDto> searchPostgres(String query, int limit) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(POSTGRES_SEARCH)
+                .setParameter("query", query)
+                .setParameter("limit", limit)
+                .getResultList();
+        Map<Long, Double> ranks = new HashMap<>();
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            long id = ((Number) row[0]).longValue();
+            ids.add(id);
+            ranks.put(id, ((Number) row[1]).doubleValue());
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return bookRepository.findResponsesById(ids).stream()
+                .map(book -> new BookSearchHitDto(book, ranks.get(book.id())))
+                .toList();
+    }
+
+    /**
+     * Ranks in the query by the fields each token occurs in, so only the books of the result are loaded.
+     */
+    private List<BookSearchHitDto> searchByTokens(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder rank = new StringBuilder();
+        StringBuilder where = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            String title = "b.titleKey like :t" + i;
+            String author = "lower(a.name) like :t" + i;
+            String genre = "exists (select 1 from Book g join g.genres genre where g = b and lower(genre) like :t"
+                    + i + ")";
+            rank.append(i == 0 ? "" : " + ")
+                    .append(weighted(title, TITLE_WEIGHT)).append(" + ")
+                    .append(weighted(author, AUTHOR_WEIGHT)).append(" + ")
+                    .append(weighted(genre, GENRE_WEIGHT));
+            where.append(" and (").append(title).append(" or ").append(author).append(" or ").append(genre)
+                    .append(')');
+        }
+        var typedQuery = entityManager.createQuery("select b.id, " + rank + " as score from Book b join b.author a"
+                + " where 1 = 1" + where + " order by score desc, b.id", Object[].class);
+        for (int i = 0; i < tokens.size(); i++) {
+            typedQuery.setParameter("t" + i, "%" + tokens.get(i) + "%");
+        }
+        Map<Long, Double> ranks = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        for (Object[] row : typedQuery.setMaxResults(limit).getResultList()) {
+            long id = ((Number) row[0]).longValue();
+            ids.add(id);
+            ranks.put(id, ((Number) row[1]).doubleValue() / tokens.size());
+        }
+        return bookRepository.findResponsesById(ids).stream()
+                .map(book -> new BookSearchHitDto(book, ranks.get(book.id())))
+                .toList();
+    }
+
+    private static String weighted(String condition, double weight) {
+        return "case when " + condition + " then " + weight + " else 0.0 end";
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+}
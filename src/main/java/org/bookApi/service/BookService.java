@@ -1,34 +1,67 @@
 package org.bookApi.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.opencsv.CSVWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bookApi.config.BookImportProperties;
+import org.bookApi.dto.BatchResponseDto;
 import org.bookApi.dto.BookRequestDto;
 import org.bookApi.dto.BookResponseDto;
+import org.bookApi.dto.CursorPageDto;
+import org.bookApi.dto.FacetedResponseDto;
 import org.bookApi.dto.PaginatedResponseDto;
+import org.bookApi.dto.SliceResponseDto;
 import org.bookApi.dto.UploadResponseDto;
 import org.bookApi.entity.Author;
 import org.bookApi.entity.Book;
+import org.bookApi.exception.ConflictException;
+import org.bookApi.exception.PreconditionFailedException;
 import org.bookApi.exception.ResourceNotFoundException;
+import org.bookApi.importer.ImportFormat;
+import org.bookApi.importer.ImportOptions;
+import org.bookApi.importer.ImportProgress;
 import org.bookApi.mapper.BookMapper;
+import org.bookApi.pagination.KeysetCursor;
 import org.bookApi.repository.AuthorRepository;
 import org.bookApi.repository.BookRepository;
-import org.springframework.data.domain.Page;
+import org.bookApi.repository.BookVersions;
+import org.bookApi.search.BookIndex;
+import org.bookApi.search.GenreFilter;
+import org.bookApi.search.GenreMatch;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 
 
@@ -38,9 +71,18 @@ import java.util.List;
 @Transactional
 public class BookService {
 
+    private static final int REPORT_FETCH_SIZE = 500;
+    static final int MAX_BATCH_IDS = 500;
+
     private final BookRepository bookRepository;
     private final AuthorRepository authorRepository;
-    private final ObjectMapper objectMapper;
+    private final BookImportService bookImportService;
+    private final BookImportProperties importProperties;
+    private final EntityManager entityManager;
+    private final BookCountCache bookCountCache;
+    private final BookSearchCache bookSearchCache;
+    private final BookDeleteInvalidator bookDeleteInvalidator;
+    private final ObjectProvider<BookIndex> bookIndex;
 
     private List<String> safeGenres(List<String> genres) {
         return genres == null ? new ArrayList<>() : new ArrayList<>(genres);
@@ -49,32 +91,78 @@ public class BookService {
 
     public BookResponseDto create(BookRequestDto dto) {
         Author author = getAuthorOrThrow(dto.authorId());
-        Book book = Book.builder()
-                .title(dto.title())
-                .author(author)
-                .yearPublished(dto.yearPublished())
-                .genres(safeGenres(dto.genres()))
-                .build();
-        return BookMapper.toDto(bookRepository.save(book));
+        return BookMapper.toDto(saveUnique(BookMapper.toEntity(dto, author)));
     }
 
 
     public BookResponseDto update(Long id, BookRequestDto dto) {
+        return update(id, dto, null);
+    }
+
+
+    /**
+     * @param ifMatch {@code If-Match} header, {@code null} to update any version
+     * @throws PreconditionFailedException if the book no longer has a version listed in {@code ifMatch}
+     */
+    public BookResponseDto update(Long id, BookRequestDto dto, String ifMatch) {
         Book book = getBookOrThrow(id);
+        if (!ETags.matches(ifMatch, eTag(book))) {
+            throw new PreconditionFailedException("Book was modified since it was read");
+        }
         Author author = getAuthorOrThrow(dto.authorId());
 
         book.setTitle(dto.title());
         book.setAuthor(author);
         book.setYearPublished(dto.yearPublished());
         book.setGenres(safeGenres(dto.genres()));
+        book.refreshDerivedColumns();
 
-        return BookMapper.toDto(bookRepository.save(book));
+        return BookMapper.toDto(saveUnique(book));
     }
 
 
+    /**
+     * Writes the book right away, so that another book with the same title and author fails here with a 409, as it
+     * does for bulk items, rather than at commit.
+     */
+    private Book saveUnique(Book book) {
+        try {
+            return bookRepository.saveAndFlush(book);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("Book with this title and author already exists");
+        }
+    }
+
+
+    /**
+     * Deletes the book with one statement, without loading it; its genres are left to the database cascade.
+     */
     public void delete(Long id) {
-        Book book = getBookOrThrow(id);
-        bookRepository.delete(book);
+        List<Book> deleted = bookRepository.deleteAllByIdReturning(List.of(id));
+        if (deleted.isEmpty()) {
+            throw new ResourceNotFoundException("Book not found");
+        }
+        bookDeleteInvalidator.booksDeleted(deleted);
+    }
+
+
+    /**
+     * Deletes the book like {@link #delete(Long)}, but only if it still has a version listed in {@code ifMatch}.
+     *
+     * @param ifMatch {@code If-Match} header, {@code null} to delete any version
+     */
+    public void delete(Long id, String ifMatch) {
+        if (ifMatch == null) {
+            delete(id);
+            return;
+        }
+        BookVersions versions = getVersionsOrThrow(id);
+        if (!ETags.matches(ifMatch, ETags.of(versions.book(), versions.author()))) {
+            throw new PreconditionFailedException("Book was modified since it was read");
+        }
+        Book deleted = bookRepository.deleteByIdAndVersionReturning(id, versions.book())
+                .orElseThrow(() -> new PreconditionFailedException("Book was modified since it was read"));
+        bookDeleteInvalidator.booksDeleted(List.of(deleted));
     }
 
 
@@ -84,6 +172,49 @@ public class BookService {
     }
 
 
+    /**
+     * Returns the book together with its ETag, which changes whenever the book or its author is written.
+     */
+    @Transactional(readOnly = true)
+    public Versioned<BookResponseDto> getVersioned(Long id) {
+        Book book = getBookOrThrow(id);
+        return new Versioned<>(BookMapper.toDto(book), eTag(book));
+    }
+
+
+    /**
+     * Returns the current ETag of the book, reading only the versions of the book and its author.
+     */
+    @Transactional(readOnly = true)
+    public String getETag(Long id) {
+        BookVersions versions = getVersionsOrThrow(id);
+        return ETags.of(versions.book(), versions.author());
+    }
+
+
+    /**
+     * Looks up the books with one query, plus one for their genres.
+     *
+     * @param ids at most {@value #MAX_BATCH_IDS}, none of them {@code null}; repeated ids are returned once
+     */
+    @Transactional(readOnly = true)
+    public BatchResponseDto<BookResponseDto> getBatch(List<Long> ids) {
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("IDs must not be empty");
+        }
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        if (distinct.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " ids can be fetched at once");
+        }
+        List<BookResponseDto> books = bookRepository.findResponsesById(distinct);
+        Set<Long> found = new HashSet<>();
+        for (BookResponseDto book : books) {
+            found.add(book.id());
+        }
+        return new BatchResponseDto<>(books, distinct.stream().filter(id -> !found.contains(id)).toList());
+    }
+
+
     @Transactional(readOnly = true)
     public List<BookResponseDto> getAll() {
         return bookRepository.findAll().stream()
@@ -92,64 +223,164 @@ public class BookService {
     }
 
 
+    /**
+     * Returns a page of the matching books, from the {@link BookSearchCache} if it holds it.
+     */
     @Transactional(readOnly = true)
     public PaginatedResponseDto<BookResponseDto> getList(
-            Long authorId, String title, Integer year, int page, int size) {
+            Long authorId, String title, Integer year, GenreFilter genres, int page, int size) {
+        return bookSearchCache.get(authorId, title, year, genres, page, size,
+                () -> loadList(authorId, title, year, genres, page, size));
+    }
+
+
+    /**
+     * Reads a page of the matching books. If the {@link BookIndex} is enabled and in service, it finds the ids of
+     * the page and the total, and only the page is read from the database. Otherwise the total number of pages comes
+     * from {@link BookCountCache}, so the count query only runs for filters not counted since the last write.
+     * Books are read straight into responses, see {@link org.bookApi.repository.BookQueryRepository}.
+     */
+    private PaginatedResponseDto<BookResponseDto> loadList(
+            Long authorId, String title, Integer year, GenreFilter genres, int page, int size) {
+
+        Pageable pageable = PageRequest.of(page - 1, size);
+
+        BookIndex index = bookIndex.getIfAvailable();
+        BookIndex.Page hits = index == null ? null
+                : index.search(authorId, title, year, genres, (int) pageable.getOffset(), size);
+        List<BookResponseDto> list;
+        long total;
+        if (hits != null) {
+            list = bookRepository.findResponsesById(hits.ids());
+            total = hits.total();
+        } else {
+            Specification<Book> spec = filters(authorId, title, year, genres);
+            list = bookRepository.findResponses(spec, (int) pageable.getOffset(), size);
+            total = bookCountCache.get(authorId, title, year, genres, () -> bookRepository.count(spec));
+        }
+        return new PaginatedResponseDto<>(list, new PageImpl<>(list, pageable, total).getTotalPages());
+    }
 
-        Pageable pageable = PageRequest.of(page - 1, size, Sort.by("title"));
 
-        Specification<Book> spec = Specification.allOf(
-                withAuthor(authorId),
-                withTitle(title),
-                withYear(year)
-        );
+    /**
+     * Returns a page of the matching books like {@link #getList}, together with the number of matching books per
+     * genre and per year. The counts come from the {@link BookIndex} when it is in service, otherwise from a single
+     * aggregate query.
+     */
+    @Transactional(readOnly = true)
+    public FacetedResponseDto<BookResponseDto> getListWithFacets(
+            Long authorId, String title, Integer year, GenreFilter genres, int page, int size) {
+
+        PaginatedResponseDto<BookResponseDto> list = getList(authorId, title, year, genres, page, size);
+        BookIndex index = bookIndex.getIfAvailable();
+        BookIndex.Facets facets = index == null ? null : index.facets(authorId, title, year, genres);
+        if (facets == null) {
+            facets = queryFacets(authorId, title, year, genres);
+        }
 
-        Page<Book> books = bookRepository.findAll(spec, pageable);
-        List<BookResponseDto> list = books.stream().map(BookMapper::toDto).toList();
-        return new PaginatedResponseDto<>(list, books.getTotalPages());
+        Map<String, Long> genreCounts = new LinkedHashMap<>();
+        facets.genres().entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .forEach(entry -> genreCounts.put(entry.getKey(), entry.getValue()));
+        return new FacetedResponseDto<>(list.list(), list.totalPages(), genreCounts, new TreeMap<>(facets.years()));
     }
 
 
-    public byte[] generateCsvReport(Long authorId, String title, Integer year) throws IOException {
-        List<BookResponseDto> books = getList(authorId, title, year, 1, Integer.MAX_VALUE).list();
-        StringWriter writer = new StringWriter();
-        try (CSVWriter csvWriter = new CSVWriter(writer)) {
-            csvWriter.writeNext(new String[]{"ID", "Title", "Author", "Year Published", "Genres"});
-            for (BookResponseDto book : books) {
+    /**
+     * Returns a page of the matching books without counting them; one extra row is read to tell whether there is
+     * a next page.
+     */
+    @Transactional(readOnly = true)
+    public SliceResponseDto<BookResponseDto> getSlice(
+            Long authorId, String title, Integer year, GenreFilter genres, int page, int size) {
+
+        Pageable pageable = PageRequest.of(page - 1, size);
+
+        List<BookResponseDto> books = bookRepository.findResponses(
+                filters(authorId, title, year, genres), (int) pageable.getOffset(), size + 1);
+        boolean hasNext = books.size() > size;
+        return new SliceResponseDto<>(hasNext ? books.subList(0, size) : books, hasNext);
+    }
+
+
+    /**
+     * Returns the books sorted by title and id that come after {@code after}, seeking on the {@code (title, id)}
+     * index instead of skipping an offset, so every page costs the same.
+     *
+     * @param after cursor returned with the previous page, or {@code null} for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<BookResponseDto> getListAfter(
+            Long authorId, String title, Integer year, GenreFilter genres, String after, int size) {
+
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        Specification<Book> spec = filters(authorId, title, year, genres).and(seekAfter(cursor));
+
+        List<BookResponseDto> books = bookRepository.findResponses(spec, 0, size + 1);
+        String nextCursor = null;
+        if (books.size() > size) {
+            books = books.subList(0, size);
+            BookResponseDto last = books.get(size - 1);
+            nextCursor = new KeysetCursor(last.title(), last.id()).encode();
+        }
+        return new CursorPageDto<>(books, nextCursor);
+    }
+
+
+    /**
+     * Writes the CSV report of the matching books to {@code out} while reading them from a forward-only cursor in
+     * blocks of {@value #REPORT_FETCH_SIZE} books, without loading entities, so memory use does not depend on the
+     * number of books. Does not close {@code out}.
+     */
+    @Transactional(readOnly = true)
+    public void writeCsvReport(Long authorId, String title, Integer year, GenreFilter genres, OutputStream out)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        CSVWriter csvWriter = new CSVWriter(writer);
+        csvWriter.writeNext(new String[]{"ID", "Title", "Author", "Year Published", "Genres"});
+        try (Stream<BookResponseDto> books =
+                     bookRepository.streamResponses(filters(authorId, title, year, genres), REPORT_FETCH_SIZE)) {
+            Iterator<BookResponseDto> iterator = books.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                BookResponseDto book = iterator.next();
                 csvWriter.writeNext(new String[]{
                         String.valueOf(book.id()),
                         book.title(),
                         book.author().name(),
                         String.valueOf(book.yearPublished()),
-                        book.genres() == null ? "" : String.join("|", book.genres())
+                        String.join("|", book.genres())
                 });
+                if (++written % REPORT_FETCH_SIZE == 0) {
+                    csvWriter.flush();
+                }
             }
         }
-        return writer.toString().getBytes(StandardCharsets.UTF_8);
+        csvWriter.flush();
     }
 
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public UploadResponseDto uploadFromJson(MultipartFile file) throws IOException {
-        int success = 0, failed = 0;
-        List<BookRequestDto> items;
+        return uploadFromJson(file, ImportOptions.DEFAULT);
+    }
 
-        try {
-            items = Arrays.asList(objectMapper.readValue(file.getInputStream(), BookRequestDto[].class));
-        } catch (Exception e) {
-            throw new RuntimeException("Invalid JSON file");
-        }
-
-        for (BookRequestDto dto : items) {
-            try {
-                create(dto);
-                success++;
-            } catch (Exception ex) {
-                failed++;
-                log.warn("Failed to import book '{}': {}", dto.title(), ex.getMessage());
-            }
-        }
 
-        return new UploadResponseDto(success, failed);
+    /**
+     * Imports the uploaded books in chunks that are committed one by one, see {@link BookImportService}.
+     * Besides a JSON array, NDJSON and the CSV report layout are accepted, detected by content type.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public UploadResponseDto uploadFromJson(MultipartFile file, ImportOptions options) throws IOException {
+        ImportFormat format = ImportFormat.detect(file.getContentType(), file.getOriginalFilename());
+        ImportProgress progress = new ImportProgress(importProperties.maxReportedFailures());
+        try (InputStream in = file.getInputStream()) {
+            bookImportService.importBooks(in, format, options, progress);
+        }
+        return progress.toResponse();
     }
 
 
@@ -158,21 +389,129 @@ public class BookService {
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
     }
 
+    private BookVersions getVersionsOrThrow(Long id) {
+        return bookRepository.findVersionsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
+    }
+
+    private static String eTag(Book book) {
+        return ETags.of(book.getVersion(), book.getAuthor().getVersion());
+    }
+
     private Author getAuthorOrThrow(Long id) {
         return authorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Author not found"));
     }
 
+    private BookIndex.Facets queryFacets(Long authorId, String title, Integer year, GenreFilter genres) {
+        Map<String, Object> parameters = new HashMap<>();
+        String where = facetConditions(authorId, title, year, genres, parameters);
+        var query = entityManager.createQuery("""
+                select 'genre', lower(trim(g)), count(distinct b.id) from Book b join b.genres g%1$s
+                group by lower(trim(g))
+                union all
+                select 'year', cast(b.yearPublished as String), count(b.id) from Book b%1$s
+                group by b.yearPublished""".formatted(where), Object[].class);
+        parameters.forEach(query::setParameter);
+
+        Map<String, Long> genreCounts = new HashMap<>();
+        Map<Integer, Long> yearCounts = new HashMap<>();
+        for (Object[] row : query.getResultList()) {
+            long count = ((Number) row[2]).longValue();
+            if ("genre".equals(row[0])) {
+                genreCounts.merge((String) row[1], count, Long::sum);
+            } else {
+                yearCounts.put(Integer.valueOf((String) row[1]), count);
+            }
+        }
+        return new BookIndex.Facets(genreCounts, yearCounts);
+    }
+
+    /**
+     * The conditions of {@link #filters} as an HQL where clause on {@code b}, for the facet query, which is a union
+     * and cannot be built from specifications. Keep the two in step.
+     */
+    private static String facetConditions(
+            Long authorId, String title, Integer year, GenreFilter genres, Map<String, Object> parameters) {
+
+        List<String> conditions = new ArrayList<>();
+        if (authorId != null) {
+            conditions.add("b.author.id = :authorId");
+            parameters.put("authorId", authorId);
+        }
+        if (title != null && !title.isBlank()) {
+            conditions.add("b.titleKey like :title escape '\\'");
+            parameters.put("title", "%" + escapeLike(Book.titleKey(title)) + "%");
+        }
+        if (year != null) {
+            conditions.add("b.yearPublished = :year");
+            parameters.put("year", year);
+        }
+        if (!genres.isEmpty()) {
+            String matching = "from Book fb join fb.genres fg where fb = b and lower(trim(fg)) in :genres";
+            if (genres.match() == GenreMatch.ALL && genres.genres().size() > 1) {
+                conditions.add("(select count(distinct lower(trim(fg))) " + matching + ") = :genreCount");
+                parameters.put("genreCount", (long) genres.genres().size());
+            } else {
+                conditions.add("exists (select 1 " + matching + ")");
+            }
+            parameters.put("genres", genres.genres());
+        }
+        return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+    }
+
+    private Specification<Book> filters(Long authorId, String title, Integer year, GenreFilter genres) {
+        return Specification.allOf(withAuthor(authorId), withTitle(title), withYear(year), withGenres(genres));
+    }
+
+    /**
+     * The leading {@code title >= key} is implied by the rest, but gives the planner a range on the index, which the
+     * {@code OR} alone does not; so every page starts at its key instead of scanning the pages before it.
+     */
+    private Specification<Book> seekAfter(KeysetCursor cursor) {
+        return (root, cq, cb) -> cursor == null ? null : cb.and(
+                cb.greaterThanOrEqualTo(root.get("title"), cursor.key()),
+                cb.or(cb.greaterThan(root.get("title"), cursor.key()),
+                        cb.and(cb.equal(root.get("title"), cursor.key()), cb.greaterThan(root.get("id"), cursor.id()))));
+    }
+
     private Specification<Book> withAuthor(Long authorId) {
         return (root, cq, cb) -> authorId == null ? null : cb.equal(root.get("author").get("id"), authorId);
     }
 
+    /**
+     * Substring match on the normalized title, which PostgreSQL serves from a trigram index.
+     */
     private Specification<Book> withTitle(String title) {
         return (root, cq, cb) -> (title == null || title.isBlank()) ? null
-                : cb.like(cb.lower(root.get("title")), "%" + title.toLowerCase() + "%");
+                : cb.like(root.get("titleKey"), "%" + escapeLike(Book.titleKey(title)) + "%", '\\');
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
     private Specification<Book> withYear(Integer year) {
         return (root, cq, cb) -> year == null ? null : cb.equal(root.get("yearPublished"), year);
     }
+
+    /**
+     * Books having any or all of the genres, checked by a subquery per book rather than a join, so books are not
+     * repeated and the filter composes with paging and counting.
+     */
+    private Specification<Book> withGenres(GenreFilter genres) {
+        return (root, cq, cb) -> {
+            if (genres.isEmpty()) {
+                return null;
+            }
+            Subquery<Long> subquery = cq.subquery(Long.class);
+            Root<Book> book = subquery.correlate(root);
+            Expression<String> genre = cb.lower(cb.trim(book.<Book, String>join("genres")));
+            subquery.where(genre.in(genres.genres()));
+            if (genres.match() == GenreMatch.ALL && genres.genres().size() > 1) {
+                return cb.equal(subquery.select(cb.countDistinct(genre)), (long) genres.genres().size());
+            }
+            return cb.exists(subquery.select(cb.literal(1L)));
+        };
+    }
 }
@@ -0,0 +1,30 @@
+package org.bookApi.service;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Strong ETags built from entity versions.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(long... versions) {
+        return Arrays.stream(versions).mapToObj(Long::toString).collect(Collectors.joining(".", "\"", "\""));
+    }
+
+    /**
+     * Compares an {@code If-Match} header with the current ETag. Weak ETags never match, as If-Match requires the
+     * strong comparison.
+     *
+     * @param ifMatch the header, {@code null} if absent, which matches any version
+     */
+    static boolean matches(String ifMatch, String eTag) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return true;
+        }
+        return Arrays.stream(ifMatch.split(",")).map(String::strip).anyMatch(eTag::equals);
+    }
+}
@@ -0,0 +1,7 @@
+package org.bookApi.service;
+
+/**
+ * A response together with the strong ETag of the version it was read from.
+ */
+public record Versioned<T>(T body, String eTag) {
+}
@@ -160,4 +160,29 @@ public class AuthorControllerIT {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
         assertThat(response.getBody()).contains("Author not found");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRenameAuthorChangesETag() {
+        Author existing = authorRepository.findAll().get(0);
+        String eTag = restTemplate.getForEntity("/api/authors/" + existing.getId(), AuthorResponseDto.class)
+                .getHeaders().getETag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(eTag);
+
+        ResponseEntity<AuthorResponseDto> renamed = restTemplate.exchange("/api/authors/" + existing.getId(),
+                HttpMethod.PUT, new HttpEntity<>(new AuthorRequestDto("First Rename"), headers),
+                AuthorResponseDto.class);
+        ResponseEntity<String> stale = restTemplate.exchange("/api/authors/" + existing.getId(),
+                HttpMethod.PUT, new HttpEntity<>(new AuthorRequestDto("Second Rename"), headers), String.class);
+        HttpHeaders revalidate = new HttpHeaders();
+        revalidate.setIfNoneMatch(eTag);
+        ResponseEntity<AuthorResponseDto> current = restTemplate.exchange("/api/authors/" + existing.getId(),
+                HttpMethod.GET, new HttpEntity<>(revalidate), AuthorResponseDto.class);
+
+        assertThat(renamed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(current.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(current.getBody().name()).isEqualTo("First Rename");
+        assertThat(current.getHeaders().getETag()).isNotEqualTo(eTag);
+    }
+}
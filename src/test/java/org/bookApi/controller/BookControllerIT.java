@@ -1,9 +1,13 @@
 package org.bookApi.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.bookApi.dto.*;
 import org.bookApi.entity.Author;
 import org.bookApi.entity.Book;
+import org.bookApi.importer.ImportJobStatus;
 import org.bookApi.repository.AuthorRepository;
 import org.bookApi.repository.BookRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,8 +22,11 @@ import org.springframework.http.*;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
+import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -100,6 +107,62 @@ public class BookControllerIT {
         assertThat(bookRepository.existsById(existing.getId())).isFalse();
     }
 
+    @Test
+    void testGetBookByIdWithETag() {
+        Book existing = bookRepository.findAll().get(0);
+        String eTag = restTemplate.getForEntity("/api/books/" + existing.getId(), BookResponseDto.class)
+                .getHeaders().getETag();
+        assertThat(eTag).isNotBlank();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        ResponseEntity<BookResponseDto> response = restTemplate.exchange("/api/books/" + existing.getId(),
+                HttpMethod.GET, new HttpEntity<>(headers), BookResponseDto.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(eTag);
+    }
+
+    @Test
+    void testUpdateBookWithStaleETag() {
+        Book existing = bookRepository.findAll().get(0);
+        String eTag = restTemplate.getForEntity("/api/books/" + existing.getId(), BookResponseDto.class)
+                .getHeaders().getETag();
+        BookRequestDto first = new BookRequestDto("First Edit", author.getId(), 2022, List.of());
+        BookRequestDto second = new BookRequestDto("Second Edit", author.getId(), 2022, List.of());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(eTag);
+
+        ResponseEntity<BookResponseDto> updated = restTemplate.exchange("/api/books/" + existing.getId(),
+                HttpMethod.PUT, new HttpEntity<>(first, headers), BookResponseDto.class);
+        ResponseEntity<String> stale = restTemplate.exchange("/api/books/" + existing.getId(),
+                HttpMethod.PUT, new HttpEntity<>(second, headers), String.class);
+
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(bookRepository.findById(existing.getId()).orElseThrow().getTitle()).isEqualTo("First Edit");
+    }
+
+    @Test
+    void testDeleteBookWithETag() {
+        Book existing = bookRepository.findAll().get(0);
+        String eTag = restTemplate.getForEntity("/api/books/" + existing.getId(), BookResponseDto.class)
+                .getHeaders().getETag();
+        HttpHeaders stale = new HttpHeaders();
+        stale.setIfMatch("\"999.999\"");
+        HttpHeaders current = new HttpHeaders();
+        current.setIfMatch(eTag);
+
+        ResponseEntity<String> rejected = restTemplate.exchange("/api/books/" + existing.getId(),
+                HttpMethod.DELETE, new HttpEntity<>(stale), String.class);
+        ResponseEntity<Void> deleted = restTemplate.exchange("/api/books/" + existing.getId(),
+                HttpMethod.DELETE, new HttpEntity<>(current), Void.class);
+
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(deleted.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(bookRepository.existsById(existing.getId())).isFalse();
+    }
+
     @Test
     void testSearchBooks() {
         BookRequestDto request = new BookRequestDto("Search Book", author.getId(), 2021, List.of("Fiction"));
@@ -115,6 +178,25 @@ public class BookControllerIT {
         assertThat(response.getBody().list()).hasSizeGreaterThan(0);
     }
 
+    @Test
+    void testSearchBooksRejectsCursorWithFacets() {
+        HttpEntity<Void> entity = new HttpEntity<>(null, new HttpHeaders());
+        ResponseEntity<String> cursorWithFacets = restTemplate.postForEntity(
+                "/api/books/search?after=&facets=true", entity, String.class);
+        ResponseEntity<String> cursorWithPage = restTemplate.getForEntity("/api/books?after=&page=2", String.class);
+        ResponseEntity<CursorPageDto<BookResponseDto>> cursor = restTemplate.exchange(
+                "/api/books?after=&total=false",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<CursorPageDto<BookResponseDto>>() {}
+        );
+
+        assertThat(cursorWithFacets.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(cursorWithPage.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(cursor.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(cursor.getBody().list()).hasSize(1);
+    }
+
     @Test
     void testGenerateCsvReport() {
         ResponseEntity<byte[]> response = restTemplate.postForEntity("/api/books/_report", null, byte[].class);
@@ -149,6 +231,56 @@ public class BookControllerIT {
         assertThat(response.getBody().successCount()).isEqualTo(1);
     }
 
+    @Test
+    void testUploadBooksFromJsonAsync() throws Exception {
+        BookRequestDto[] books = {
+                new BookRequestDto("Async Book", author.getId(), 2022, List.of("Sci-Fi")),
+                new BookRequestDto("Async Orphan", 999_999L, 2022, List.of())
+        };
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = multipartUpload(objectMapper.writeValueAsBytes(books));
+
+        ResponseEntity<ImportJobDto> accepted = restTemplate.postForEntity("/api/books/_upload?async=true", requestEntity, ImportJobDto.class);
+
+        assertThat(accepted.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(accepted.getHeaders().getLocation()).hasToString("/api/books/_upload/" + accepted.getBody().id());
+
+        ImportJobDto job = accepted.getBody();
+        for (int attempt = 0; attempt < 100 && job.finishedAt() == null; attempt++) {
+            Thread.sleep(100);
+            job = restTemplate.getForObject("/api/books/_upload/" + job.id(), ImportJobDto.class);
+        }
+
+        assertThat(job.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(job.successCount()).isEqualTo(1);
+        assertThat(job.failedCount()).isEqualTo(1);
+        assertThat(job.failures()).singleElement()
+                .satisfies(failure -> {
+                    assertThat(failure.row()).isEqualTo(2);
+                    assertThat(failure.reason()).isEqualTo("Author not found");
+                });
+    }
+
+    @Test
+    void testUploadStatusNotFound() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/books/_upload/unknown", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private HttpEntity<MultiValueMap<String, Object>> multipartUpload(byte[] content) {
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", new ByteArrayResource(content) {
+            @Override
+            public String getFilename() {
+                return "books.json";
+            }
+        });
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        return new HttpEntity<>(body, headers);
+    }
+
     @Test
     void testGetAllBooksPaginated() {
         ResponseEntity<PaginatedResponseDto<BookResponseDto>> response = restTemplate.exchange(
@@ -164,4 +296,48 @@ public class BookControllerIT {
         assertThat(books).hasSizeGreaterThan(0);
     }
 
+    @Test
+    void testGetAllBooksAsCbor() throws Exception {
+        JsonNode page = new CBORMapper().readTree(getBooks("application/cbor"));
+
+        assertThat(page.get("list").get(0).get("title").asText()).isEqualTo("Book One");
+        assertThat(page.get("list").get(0).get("author").get("name").asText()).isEqualTo("Test Author");
+    }
+
+    @Test
+    void testGetAllBooksAsSmile() throws Exception {
+        JsonNode page = new SmileMapper().readTree(getBooks("application/x-jackson-smile"));
+
+        assertThat(page.get("list").get(0).get("title").asText()).isEqualTo("Book One");
+    }
+
+    @Test
+    void testGetAllBooksCompressed() throws Exception {
+        for (int i = 0; i < 40; i++) {
+            bookRepository.save(Book.builder().title("Compressed Book " + i).author(author).yearPublished(2020)
+                    .genres(new ArrayList<>(List.of("Fiction", "Drama"))).build());
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        ResponseEntity<byte[]> response = restTemplate.exchange("/api/books?page=1&size=50", HttpMethod.GET,
+                new HttpEntity<>(headers), byte[].class);
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            assertThat(objectMapper.readTree(body).get("list")).hasSize(41);
+        }
+    }
+
+    private byte[] getBooks(String accept) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.parseMediaType(accept)));
+
+        ResponseEntity<byte[]> response = restTemplate.exchange("/api/books?page=1&size=10", HttpMethod.GET,
+                new HttpEntity<>(headers), byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.parseMediaType(accept))).isTrue();
+        return response.getBody();
+    }
 }
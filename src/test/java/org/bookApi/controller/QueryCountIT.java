@@ -0,0 +1,124 @@
+package org.bookApi.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.bookApi.entity.Author;
+import org.bookApi.entity.Book;
+import org.bookApi.repository.AuthorRepository;
+import org.bookApi.repository.BookRepository;
+import org.bookApi.service.BookCountCache;
+import org.bookApi.service.BookSearchCache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards against N+1 queries: every read endpoint must issue a fixed number of SQL statements,
+ * however many books it returns.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class QueryCountIT {
+
+    private static final int BOOKS = 30;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BookSearchCache bookSearchCache;
+
+    @Autowired
+    private BookCountCache bookCountCache;
+
+    private Long bookId;
+    private String bookIds;
+    private String authorIds;
+
+    @BeforeEach
+    void setup() {
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            Author author = authorRepository.save(Author.builder().name("Counted Author " + i).build());
+            books.add(Book.builder().title("Counted Book " + i).author(author).yearPublished(2000 + i)
+                    .genres(new ArrayList<>(List.of("Genre " + i, "Shared"))).build());
+        }
+        List<Book> saved = bookRepository.saveAll(books);
+        bookId = saved.get(0).getId();
+        bookIds = String.join(",", saved.stream().map(book -> book.getId().toString()).toList());
+        authorIds = String.join(",", saved.stream().map(book -> book.getAuthor().getId().toString()).toList());
+        // A response served from a cache would pass without running the queries being counted.
+        bookSearchCache.clear();
+        bookCountCache.invalidate();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void listBooks() {
+        assertStatements(3, () -> restTemplate.getForEntity("/api/books?page=1&size=" + BOOKS, String.class));
+    }
+
+    @Test
+    void searchBooks() {
+        assertStatements(3, () -> restTemplate.postForEntity("/api/books/search?title=Counted&size=" + BOOKS, null, String.class));
+    }
+
+    @Test
+    void getBook() {
+        assertStatements(1, () -> restTemplate.getForEntity("/api/books/" + bookId, String.class));
+    }
+
+    @Test
+    void batchBooks() {
+        assertStatements(2, () -> restTemplate.getForEntity("/api/books/_batch?ids=" + bookIds, String.class));
+    }
+
+    @Test
+    void batchAuthors() {
+        assertStatements(1, () -> restTemplate.getForEntity("/api/authors/_batch?ids=" + authorIds, String.class));
+    }
+
+    @Test
+    void report() {
+        assertStatements(2, () -> restTemplate.postForEntity("/api/books/_report", null, String.class));
+    }
+
+    @Test
+    void listAuthors() {
+        assertStatements(2, () -> restTemplate.getForEntity("/api/authors?page=1&size=" + BOOKS, String.class));
+    }
+
+    private void assertStatements(long expected, Supplier<ResponseEntity<String>> call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ResponseEntity<String> response = call.get();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(statistics.getPrepareStatementCount())
+                .as("SQL statements issued")
+                .isBetween(1L, expected);
+    }
+}
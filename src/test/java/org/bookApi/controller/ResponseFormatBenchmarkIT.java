@@ -0,0 +1,86 @@
+package org.bookApi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bookApi.dto.AuthorResponseDto;
+import org.bookApi.dto.BookResponseDto;
+import org.bookApi.dto.PaginatedResponseDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the size of a page of books, plain and gzipped, and the CPU time to write it in JSON, CBOR and Smile,
+ * with the mappers the endpoints use.
+ * Runs with the integration tests in {@code mvn verify}.
+ */
+@SpringBootTest
+class ResponseFormatBenchmarkIT {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int WARMUP = 2_000;
+    private static final int RUNS = 10_000;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Test
+    void binaryFormatsAreSmallerThanJson() throws IOException {
+        PaginatedResponseDto<BookResponseDto> page = page();
+
+        byte[] json = measure("json", objectMapper, page);
+        byte[] cbor = measure("cbor", cborConverter.getObjectMapper(), page);
+        byte[] smile = measure("smile", smileConverter.getObjectMapper(), page);
+
+        assertThat(cbor.length).isLessThan(json.length);
+        assertThat(smile.length).isLessThan(cbor.length);
+    }
+
+    private static PaginatedResponseDto<BookResponseDto> page() {
+        List<AuthorResponseDto> authors = List.of(
+                new AuthorResponseDto(1L, "Benchmark Author 1"),
+                new AuthorResponseDto(2L, "Benchmark Author 2"));
+        List<BookResponseDto> books = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            books.add(new BookResponseDto(10_000L + i, "Benchmark Book " + i, authors.get(i % 2), 1950 + i % 70,
+                    List.of("Genre " + i % 7, "Shared")));
+        }
+        return new PaginatedResponseDto<>(books, 20);
+    }
+
+    private static byte[] measure(String format, ObjectMapper mapper, Object page) throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) {
+            mapper.writeValueAsBytes(page);
+        }
+        long before = threads.getCurrentThreadCpuTime();
+        byte[] bytes = null;
+        for (int i = 0; i < RUNS; i++) {
+            bytes = mapper.writeValueAsBytes(page);
+        }
+        long cpuNanos = (threads.getCurrentThreadCpuTime() - before) / RUNS;
+
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(bytes);
+        }
+        System.out.printf("page of %d books as %-5s: %,d bytes, %,d gzipped, %,d ns CPU to write%n",
+                PAGE_SIZE, format, bytes.length, gzipped.size(), cpuNanos);
+        return bytes;
+    }
+}
@@ -0,0 +1,139 @@
+package org.bookApi.search;
+
+import org.bookApi.dto.BookRequestDto;
+import org.bookApi.dto.BookResponseDto;
+import org.bookApi.dto.PaginatedResponseDto;
+import org.bookApi.entity.Author;
+import org.bookApi.repository.AuthorRepository;
+import org.bookApi.repository.BookRepository;
+import org.bookApi.service.AuthorService;
+import org.bookApi.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Not transactional, since the index only follows committed writes.
+ */
+@SpringBootTest(properties = "book.index.enabled=true")
+class BookIndexIntegrationTest {
+
+    @Autowired
+    private BookIndex bookIndex;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private AuthorService authorService;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private BookRepository bookRepository;
+
+    private Author first;
+    private Author second;
+
+    @BeforeEach
+    void init() {
+        cleanUp();
+        first = authorRepository.save(Author.builder().name("First Author").build());
+        second = authorRepository.save(Author.builder().name("Second Author").build());
+        bookIndex.rebuild();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+    }
+
+    private BookResponseDto create(String title, Author author, int year, String... genres) {
+        return bookService.create(new BookRequestDto(title, author.getId(), year, new ArrayList<>(List.of(genres))));
+    }
+
+    private List<String> titles(PaginatedResponseDto<BookResponseDto> page) {
+        return page.list().stream().map(BookResponseDto::title).toList();
+    }
+
+    @Test
+    void rebuild_indexesExistingBooks() {
+        create("Alpha", first, 2001, "Drama");
+        create("Beta", second, 2002, "Comedy");
+
+        bookIndex.rebuild();
+
+        BookIndex.Page page = bookIndex.search(null, null, null, GenreFilter.NONE, 0, 10);
+        assertNotNull(page);
+        assertEquals(2, page.total());
+    }
+
+    @Test
+    void getList_followsCommittedWrites() {
+        create("Gamma Ray", first, 2000);
+        create("Alpha Ray", first, 2001);
+        BookResponseDto beta = create("Beta", second, 2000);
+
+        assertEquals(List.of("Alpha Ray", "Gamma Ray"),
+                titles(bookService.getList(null, "ray", null, GenreFilter.NONE, 1, 10)));
+        assertEquals(List.of("Beta", "Gamma Ray"),
+                titles(bookService.getList(null, null, 2000, GenreFilter.NONE, 1, 10)));
+
+        bookService.update(beta.id(), new BookRequestDto("Beta Ray", second.getId(), 2000, new ArrayList<>()));
+        assertEquals(List.of("Alpha Ray", "Beta Ray", "Gamma Ray"),
+                titles(bookService.getList(null, "RAY", null, GenreFilter.NONE, 1, 10)));
+
+        bookService.delete(beta.id());
+        assertEquals(2, bookIndex.search(null, "ray", null, GenreFilter.NONE, 0, 10).total());
+    }
+
+    @Test
+    void search_combinesFiltersAndPages() {
+        for (int i = 0; i < 20; i++) {
+            create("Book " + (char) ('A' + i), i % 2 == 0 ? first : second, 2000 + i % 3,
+                    "Drama", i % 4 == 0 ? "Crime" : "Poetry");
+        }
+
+        BookIndex.Page page = bookIndex.search(
+                first.getId(), "book", null, new GenreFilter(List.of("crime"), GenreMatch.ANY), 1, 2);
+
+        assertEquals(5, page.total());
+        assertEquals(2, page.ids().size());
+        PaginatedResponseDto<BookResponseDto> list =
+                bookService.getList(first.getId(), null, 2000, GenreFilter.NONE, 2, 2);
+        assertEquals(List.of("Book M", "Book S"), titles(list));
+        assertEquals(2, list.totalPages());
+    }
+
+    @Test
+    void facets_countMatchingBooks() {
+        create("Dune", first, 1965, "Science Fiction", "Adventure");
+        create("Emma", second, 1815, "Romance");
+        create("Ivanhoe", first, 1819, "Adventure", "Romance");
+
+        GenreFilter all = GenreFilter.of(List.of("adventure", "romance"), "all");
+        BookIndex.Facets facets = bookIndex.facets(null, null, null, all);
+
+        assertEquals(Map.of("adventure", 1L, "romance", 1L), facets.genres());
+        assertEquals(Map.of(1819, 1L), facets.years());
+        assertEquals(1, bookIndex.search(null, null, null, all, 0, 10).total());
+        assertEquals(3, bookIndex.search(null, null, null, GenreFilter.of(List.of("adventure", "romance"), "any"),
+                0, 10).total());
+    }
+
+    @Test
+    void authorDelete_dropsTheirBooks() {
+        create("Kept", first, 2000);
+        create("Dropped", second, 2000);
+
+        authorService.delete(second.getId());
+
+        assertEquals(List.of("Kept"), titles(bookService.getList(null, null, null, GenreFilter.NONE, 1, 10)));
+    }
+}
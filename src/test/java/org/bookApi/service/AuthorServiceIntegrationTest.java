@@ -3,6 +3,7 @@ package org.bookApi.service;
 
 import org.bookApi.dto.AuthorRequestDto;
 import org.bookApi.dto.AuthorResponseDto;
+import org.bookApi.dto.CursorPageDto;
 import org.bookApi.entity.Author;
 import org.bookApi.exception.ResourceNotFoundException;
 import org.bookApi.repository.AuthorRepository;
@@ -42,6 +43,16 @@ class AuthorServiceIntegrationTest {
         assertEquals(1, authorRepository.count());
     }
 
+    @Test
+    void createAuthor_sharesIdBlockWithJpaInserts() {
+        AuthorResponseDto first = authorService.create(new AuthorRequestDto("First"));
+        AuthorResponseDto second = authorService.create(new AuthorRequestDto("Second"));
+        Author third = authorRepository.save(Author.builder().name("Third").build());
+
+        assertEquals(first.id() + 1, second.id());
+        assertEquals(second.id() + 1, third.getId());
+    }
+
     @Test
     void createAuthor_duplicateName_throws() {
         authorRepository.save(Author.builder().name("John").build());
@@ -86,6 +97,23 @@ class AuthorServiceIntegrationTest {
         assertEquals(1, authorRepository.count());
     }
 
+    @Test
+    void createOrReturnExisting_names_createsMissingInRequestOrder() {
+        Author existing = authorRepository.save(Author.builder().name("Bob").build());
+
+        List<AuthorResponseDto> result = authorService.createOrReturnExisting(List.of("Zoe", "Bob", "Ann", "Zoe"));
+
+        assertEquals(List.of("Zoe", "Bob", "Ann"), result.stream().map(AuthorResponseDto::name).toList());
+        assertEquals(existing.getId(), result.get(1).id());
+        assertEquals(3, authorRepository.count());
+    }
+
+    @Test
+    void createOrReturnExisting_blankName_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> authorService.createOrReturnExisting(List.of("Ann", " ")));
+    }
+
     @Test
     void updateAuthor_success() {
         Author author = authorRepository.save(Author.builder().name("Old").build());
@@ -124,6 +152,20 @@ class AuthorServiceIntegrationTest {
         assertEquals(0, authorRepository.count());
     }
 
+    @Test
+    void getListAfter_walksAllPages() {
+        for (String name : List.of("Carol", "Alice", "Bob")) {
+            authorRepository.save(Author.builder().name(name).build());
+        }
+
+        CursorPageDto<AuthorResponseDto> first = authorService.getListAfter("", 2);
+        CursorPageDto<AuthorResponseDto> last = authorService.getListAfter(first.nextCursor(), 2);
+
+        assertEquals(List.of("Alice", "Bob"), first.list().stream().map(AuthorResponseDto::name).toList());
+        assertEquals(List.of("Carol"), last.list().stream().map(AuthorResponseDto::name).toList());
+        assertNull(last.nextCursor());
+    }
+
     @Test
     void deleteAuthor_notFound_throws() {
         assertThrows(ResourceNotFoundException.class,
@@ -0,0 +1,120 @@
+package org.bookApi.service;
+
+import org.bookApi.dto.BookBulkUpdateDto;
+import org.bookApi.dto.BookRequestDto;
+import org.bookApi.dto.BulkItemResultDto;
+import org.bookApi.dto.BulkResponseDto;
+import org.bookApi.entity.Author;
+import org.bookApi.entity.Book;
+import org.bookApi.repository.AuthorRepository;
+import org.bookApi.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class BookBulkServiceIntegrationTest {
+
+    @Autowired
+    private BookBulkService bookBulkService;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Author author;
+
+    @BeforeEach
+    void init() {
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        author = authorRepository.save(Author.builder().name("Bulk Author").build());
+    }
+
+    private Book save(String title, String... genres) {
+        return bookRepository.save(Book.builder().title(title).author(author).yearPublished(2020)
+                .genres(new ArrayList<>(List.of(genres))).build());
+    }
+
+    private List<Integer> statuses(BulkResponseDto response) {
+        return response.items().stream().map(BulkItemResultDto::status).toList();
+    }
+
+    @Test
+    void create_reportsEveryItem() {
+        save("Existing");
+
+        BulkResponseDto response = bookBulkService.create(Arrays.asList(
+                new BookRequestDto("New", author.getId(), 2021, List.of("Drama")),
+                new BookRequestDto(" ", author.getId(), 2021, List.of()),
+                new BookRequestDto("Orphan", 999L, 2021, List.of()),
+                new BookRequestDto("existing", author.getId(), 2021, List.of()),
+                new BookRequestDto("New", author.getId(), 2022, List.of()),
+                new BookRequestDto("No Year", author.getId(), null, List.of()),
+                null));
+
+        assertEquals(List.of(201, 400, 404, 409, 409, 400, 400), statuses(response));
+        assertEquals(1, response.succeeded());
+        assertEquals(6, response.failed());
+        assertEquals("title: must not be blank", response.items().get(1).error());
+        assertEquals("yearPublished: must not be null", response.items().get(5).error());
+        Book created = bookRepository.findById(response.items().get(0).id()).orElseThrow();
+        assertEquals(List.of("Drama"), created.getGenres());
+        assertEquals(2, bookRepository.count());
+    }
+
+    @Test
+    void update_reportsEveryItem() {
+        Book first = save("First", "Drama");
+        Book second = save("Second");
+
+        BulkResponseDto response = bookBulkService.update(List.of(
+                new BookBulkUpdateDto(first.getId(), "First Revised", author.getId(), 2001, List.of("Comedy")),
+                new BookBulkUpdateDto(777L, "Missing", author.getId(), 2001, List.of()),
+                new BookBulkUpdateDto(second.getId(), "First Revised", author.getId(), 2002, List.of()),
+                new BookBulkUpdateDto(first.getId(), "Twice", author.getId(), 2003, List.of())));
+
+        assertEquals(List.of(200, 404, 409, 400), statuses(response));
+        Book updated = bookRepository.findById(first.getId()).orElseThrow();
+        assertEquals("First Revised", updated.getTitle());
+        assertEquals(2001, updated.getYearPublished());
+        assertEquals(List.of("Comedy"), updated.getGenres());
+        assertEquals("Second", bookRepository.findById(second.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void delete_removesBooksAndTheirGenres() {
+        Book first = save("First", "Drama", "Comedy");
+        Book second = save("Second", "Drama");
+
+        BulkResponseDto response = bookBulkService.delete(Arrays.asList(first.getId(), 777L, null, second.getId()));
+
+        assertEquals(List.of(204, 404, 400, 204), statuses(response));
+        assertEquals(0, bookRepository.count());
+        assertTrue(bookRepository.findById(first.getId()).isEmpty());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_genres WHERE book_id IN (?, ?)",
+                Integer.class, first.getId(), second.getId()));
+    }
+
+    @Test
+    void tooManyItems_throws() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1001; id++) {
+            ids.add(id);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> bookBulkService.delete(ids));
+    }
+}
@@ -0,0 +1,162 @@
+package org.bookApi.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bookApi.dto.AuthorRequestDto;
+import org.bookApi.dto.BookRequestDto;
+import org.bookApi.dto.BookResponseDto;
+import org.bookApi.dto.PaginatedResponseDto;
+import org.bookApi.entity.Author;
+import org.bookApi.repository.AuthorRepository;
+import org.bookApi.repository.BookRepository;
+import org.bookApi.search.GenreFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Not transactional, since the cache only drops pages when the writing transaction completes.
+ */
+@SpringBootTest(properties = "book.search-cache.max-entries=3")
+class BookSearchCacheIntegrationTest {
+
+    @Autowired
+    private BookSearchCache bookSearchCache;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private AuthorService authorService;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Author first;
+    private Author second;
+
+    @BeforeEach
+    void init() {
+        cleanUp();
+        first = authorRepository.save(Author.builder().name("First Author").build());
+        second = authorRepository.save(Author.builder().name("Second Author").build());
+        bookSearchCache.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+    }
+
+    private BookResponseDto create(String title, Author author, int year) {
+        return bookService.create(new BookRequestDto(title, author.getId(), year, new ArrayList<>(List.of("Drama"))));
+    }
+
+    private PaginatedResponseDto<BookResponseDto> list(Long authorId) {
+        return bookService.getList(authorId, null, null, GenreFilter.NONE, 1, 10);
+    }
+
+    private List<String> titles(PaginatedResponseDto<BookResponseDto> page) {
+        return page.list().stream().map(BookResponseDto::title).toList();
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("book.search.cache.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    void getList_repeatedFilters_hitCache() {
+        create("Alpha", first, 2001);
+        double hits = requests("hit");
+        double misses = requests("miss");
+
+        assertEquals(List.of("Alpha"), titles(list(first.getId())));
+        assertEquals(List.of("Alpha"), titles(list(first.getId())));
+
+        assertEquals(hits + 1, requests("hit"));
+        assertEquals(misses + 1, requests("miss"));
+    }
+
+    @Test
+    void write_evictsOnlyPagesOfTheBook() {
+        create("Alpha", first, 2001);
+        create("Beta", second, 2002);
+        list(first.getId());
+        list(second.getId());
+
+        create("Gamma", first, 2003);
+        double hits = requests("hit");
+        double misses = requests("miss");
+
+        assertEquals(List.of("Alpha", "Gamma"), titles(list(first.getId())));
+        assertEquals(List.of("Beta"), titles(list(second.getId())));
+        assertEquals(hits + 1, requests("hit"));
+        assertEquals(misses + 1, requests("miss"));
+    }
+
+    @Test
+    void update_evictsPagesOfTheOldAndNewAuthor() {
+        BookResponseDto book = create("Alpha", first, 2001);
+        list(first.getId());
+        list(second.getId());
+
+        bookService.update(book.id(), new BookRequestDto("Alpha", second.getId(), 2001, new ArrayList<>()));
+
+        assertEquals(List.of(), titles(list(first.getId())));
+        assertEquals(List.of("Alpha"), titles(list(second.getId())));
+    }
+
+    @Test
+    void authorRename_evictsPagesOfTheAuthor() {
+        create("Alpha", first, 2001);
+        list(first.getId());
+
+        authorService.update(first.getId(), new AuthorRequestDto("Renamed Author"));
+
+        assertEquals("Renamed Author", list(first.getId()).list().get(0).author().name());
+    }
+
+    @Test
+    void clearInTransaction_dropsPagesCachedBeforeCompletion() {
+        create("Alpha", first, 2001);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            bookSearchCache.clear();
+            list(first.getId());
+        });
+        double misses = requests("miss");
+
+        list(first.getId());
+
+        assertEquals(misses + 1, requests("miss"));
+    }
+
+    @Test
+    void getList_beyondMaxEntries_evictsLeastRecentlyUsed() {
+        create("Alpha", first, 2001);
+        double evicted = meterRegistry.get("book.search.cache.evictions").tag("cause", "size").counter().count();
+        for (int year = 2001; year <= 2004; year++) {
+            bookService.getList(null, null, year, GenreFilter.NONE, 1, 10);
+        }
+        double misses = requests("miss");
+
+        bookService.getList(null, null, 2001, GenreFilter.NONE, 1, 10);
+
+        assertEquals(misses + 1, requests("miss"));
+        assertEquals(evicted + 2,
+                meterRegistry.get("book.search.cache.evictions").tag("cause", "size").counter().count());
+        assertEquals(3.0, meterRegistry.get("book.search.cache.size").gauge().value());
+    }
+}
@@ -0,0 +1,79 @@
+package org.bookApi.service;
+
+import org.bookApi.dto.BookSearchHitDto;
+import org.bookApi.entity.Author;
+import org.bookApi.entity.Book;
+import org.bookApi.repository.AuthorRepository;
+import org.bookApi.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class BookSearchServiceIntegrationTest {
+
+    @Autowired
+    private BookSearchService bookSearchService;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void init() {
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+
+        Author tolkien = authorRepository.save(Author.builder().name("J. R. R. Tolkien").build());
+        Author herbert = authorRepository.save(Author.builder().name("Frank Herbert").build());
+        save("The Hobbit", tolkien, List.of("Fantasy"));
+        save("The Lord of the Rings", tolkien, List.of("Fantasy", "Adventure"));
+        save("Dune", herbert, List.of("Science Fiction"));
+        save("Fantasy Worlds of Tolkien", herbert, List.of("Essay"));
+    }
+
+    private void save(String title, Author author, List<String> genres) {
+        bookRepository.save(Book.builder()
+                .title(title)
+                .author(author)
+                .yearPublished(1950)
+                .genres(new ArrayList<>(genres))
+                .build());
+    }
+
+    @Test
+    void search_ranksTitleMatchesFirst() {
+        List<BookSearchHitDto> hits = bookSearchService.search("tolkien", 10);
+
+        assertEquals(3, hits.size());
+        assertEquals("Fantasy Worlds of Tolkien", hits.get(0).book().title());
+        assertTrue(hits.get(0).rank() > hits.get(1).rank());
+    }
+
+    @Test
+    void search_requiresEveryWord() {
+        List<BookSearchHitDto> hits = bookSearchService.search("tolkien adventure", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals("The Lord of the Rings", hits.get(0).book().title());
+    }
+
+    @Test
+    void search_limitsResults() {
+        assertEquals(2, bookSearchService.search("fantasy", 2).size());
+        assertTrue(bookSearchService.search("cookbook", 10).isEmpty());
+    }
+
+    @Test
+    void search_blankQuery_throws() {
+        assertThrows(IllegalArgumentException.class, () -> bookSearchService.search("  ", 10));
+    }
+}
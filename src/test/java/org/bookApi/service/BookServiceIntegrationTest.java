@@ -2,15 +2,25 @@ package org.bookApi.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.bookApi.dto.BatchResponseDto;
 import org.bookApi.dto.BookRequestDto;
 import org.bookApi.dto.BookResponseDto;
+import org.bookApi.dto.CursorPageDto;
+import org.bookApi.dto.FacetedResponseDto;
 import org.bookApi.dto.UploadResponseDto;
+import org.bookApi.importer.ImportMode;
+import org.bookApi.importer.ImportOptions;
 import org.bookApi.entity.Author;
 import org.bookApi.entity.Book;
+import org.bookApi.exception.ConflictException;
+import org.bookApi.exception.ImportFailedException;
 import org.bookApi.exception.ResourceNotFoundException;
 import org.bookApi.repository.AuthorRepository;
 import org.bookApi.repository.BookRepository;
 import org.bookApi.dto.PaginatedResponseDto;
+import org.bookApi.dto.SliceResponseDto;
+import org.bookApi.search.GenreFilter;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -18,12 +28,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,6 +56,8 @@ class BookServiceIntegrationTest {
     private BookRepository bookRepository;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     private Author savedAuthor;
 
@@ -52,6 +71,27 @@ class BookServiceIntegrationTest {
         );
     }
 
+    /**
+     * Tests without the rolled back test transaction commit what they write, which later tests would trip over.
+     */
+    @AfterEach
+    void removeCommitted() {
+        if (TestTransaction.isActive()) {
+            return;
+        }
+        TransactionTemplate cleanup = new TransactionTemplate(transactionManager);
+        cleanup.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        cleanup.executeWithoutResult(status -> {
+            bookRepository.deleteAllInBatch();
+            authorRepository.deleteAllInBatch();
+        });
+    }
+
+    private List<String> genresOf(Long bookId) {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                List.copyOf(bookRepository.findById(bookId).orElseThrow().getGenres()));
+    }
+
     @Test
     void create_success() {
         BookRequestDto dto = new BookRequestDto("Book 1", savedAuthor.getId(),
@@ -66,6 +106,14 @@ class BookServiceIntegrationTest {
         assertEquals(1, bookRepository.count());
     }
 
+    @Test
+    void create_sameTitleAndAuthor_throwsConflict() {
+        bookService.create(new BookRequestDto("Book 1", savedAuthor.getId(), 2020, new ArrayList<>()));
+
+        assertThrows(ConflictException.class, () -> bookService.create(
+                new BookRequestDto("  book   1 ", savedAuthor.getId(), 2021, new ArrayList<>())));
+    }
+
     @Test
     void create_authorNotFound_throws() {
         BookRequestDto dto = new BookRequestDto("Fail", 999L, 2020, new ArrayList<>());
@@ -95,6 +143,36 @@ class BookServiceIntegrationTest {
         assertThrows(ResourceNotFoundException.class, () -> bookService.getById(777L));
     }
 
+    @Test
+    void getBatch_keepsRequestOrderAndReportsMissing() {
+        Book first = bookRepository.save(Book.builder().title("First").author(savedAuthor)
+                .yearPublished(2020).genres(new ArrayList<>(List.of("Drama"))).build());
+        Book second = bookRepository.save(Book.builder().title("Second").author(savedAuthor)
+                .yearPublished(2021).genres(new ArrayList<>()).build());
+
+        BatchResponseDto<BookResponseDto> result =
+                bookService.getBatch(List.of(second.getId(), 777L, first.getId(), second.getId()));
+
+        assertEquals(List.of("Second", "First"), result.list().stream().map(BookResponseDto::title).toList());
+        assertEquals(List.of("Drama"), result.list().get(1).genres());
+        assertEquals(List.of(777L), result.missing());
+    }
+
+    @Test
+    void getBatch_emptyId_throws() {
+        assertThrows(IllegalArgumentException.class, () -> bookService.getBatch(Arrays.asList(1L, null, 2L)));
+    }
+
+    @Test
+    void getBatch_tooManyIds_throws() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 501; id++) {
+            ids.add(id);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> bookService.getBatch(ids));
+    }
+
     @Test
     void getAll_success() {
         bookRepository.save(Book.builder().title("B1").author(savedAuthor)
@@ -182,12 +260,106 @@ class BookServiceIntegrationTest {
                 .author(savedAuthor).yearPublished(2002).genres(new ArrayList<>()).build());
 
         PaginatedResponseDto<BookResponseDto> page =
-                bookService.getList(null, "alph", null, 1, 20);
+                bookService.getList(null, "alph", null, GenreFilter.NONE, 1, 20);
 
         assertEquals(1, page.list().size());
         assertEquals("Alpha", page.list().get(0).title());
     }
 
+    @Test
+    void getSlice_reportsNextPageWithoutTotal() {
+        for (String title : List.of("Alpha", "Bravo", "Charlie")) {
+            bookRepository.save(Book.builder().title(title)
+                    .author(savedAuthor).yearPublished(2001).genres(new ArrayList<>()).build());
+        }
+
+        SliceResponseDto<BookResponseDto> first = bookService.getSlice(null, null, null, GenreFilter.NONE, 1, 2);
+        SliceResponseDto<BookResponseDto> second = bookService.getSlice(null, null, null, GenreFilter.NONE, 2, 2);
+
+        assertEquals(2, first.list().size());
+        assertTrue(first.hasNext());
+        assertEquals(List.of("Charlie"), second.list().stream().map(BookResponseDto::title).toList());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void getList_totalFollowsWrites() {
+        bookService.create(new BookRequestDto("Counted 1", savedAuthor.getId(), 2001, List.of()));
+        assertEquals(1, bookService.getList(null, null, null, GenreFilter.NONE, 1, 1).totalPages());
+
+        bookService.create(new BookRequestDto("Counted 2", savedAuthor.getId(), 2001, List.of()));
+        assertEquals(2, bookService.getList(null, null, null, GenreFilter.NONE, 1, 1).totalPages());
+    }
+
+    @Test
+    void getListAfter_walksAllPages() {
+        for (String title : List.of("Delta", "Alpha", "Charlie", "Bravo", "Echo")) {
+            bookRepository.save(Book.builder().title(title)
+                    .author(savedAuthor).yearPublished(2001).genres(new ArrayList<>()).build());
+        }
+
+        CursorPageDto<BookResponseDto> first = bookService.getListAfter(null, null, null, GenreFilter.NONE, "", 2);
+        CursorPageDto<BookResponseDto> second =
+                bookService.getListAfter(null, null, null, GenreFilter.NONE, first.nextCursor(), 2);
+        CursorPageDto<BookResponseDto> last =
+                bookService.getListAfter(null, null, null, GenreFilter.NONE, second.nextCursor(), 2);
+
+        assertEquals(List.of("Alpha", "Bravo"), first.list().stream().map(BookResponseDto::title).toList());
+        assertEquals(List.of("Charlie", "Delta"), second.list().stream().map(BookResponseDto::title).toList());
+        assertEquals(List.of("Echo"), last.list().stream().map(BookResponseDto::title).toList());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void getListAfter_invalidCursor_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bookService.getListAfter(null, null, null, GenreFilter.NONE, "not a cursor", 2));
+    }
+
+    private void saveGenreBooks() {
+        bookRepository.save(Book.builder().title("Dune").author(savedAuthor).yearPublished(1965)
+                .genres(new ArrayList<>(List.of("Science Fiction", "Adventure"))).build());
+        bookRepository.save(Book.builder().title("Emma").author(savedAuthor).yearPublished(1815)
+                .genres(new ArrayList<>(List.of("Romance"))).build());
+        bookRepository.save(Book.builder().title("Ivanhoe").author(savedAuthor).yearPublished(1819)
+                .genres(new ArrayList<>(List.of("adventure", "Romance"))).build());
+    }
+
+    @Test
+    void getList_filtersByGenres() {
+        saveGenreBooks();
+
+        PaginatedResponseDto<BookResponseDto> any = bookService.getList(null, null, null,
+                GenreFilter.of(List.of("Adventure", "romance"), "any"), 1, 20);
+        PaginatedResponseDto<BookResponseDto> all = bookService.getList(null, null, null,
+                GenreFilter.of(List.of("Adventure", "romance"), "all"), 1, 20);
+        PaginatedResponseDto<BookResponseDto> one = bookService.getList(null, null, null,
+                GenreFilter.of(List.of(" ROMANCE "), "all"), 1, 20);
+
+        assertEquals(List.of("Dune", "Emma", "Ivanhoe"), any.list().stream().map(BookResponseDto::title).toList());
+        assertEquals(List.of("Ivanhoe"), all.list().stream().map(BookResponseDto::title).toList());
+        assertEquals(List.of("Emma", "Ivanhoe"), one.list().stream().map(BookResponseDto::title).toList());
+    }
+
+    @Test
+    void getList_unknownGenreMatch_throws() {
+        assertThrows(IllegalArgumentException.class, () -> GenreFilter.of(List.of("Drama"), "some"));
+    }
+
+    @Test
+    void getListWithFacets_countsMatchingBooks() {
+        saveGenreBooks();
+
+        FacetedResponseDto<BookResponseDto> result = bookService.getListWithFacets(null, null, null,
+                GenreFilter.of(List.of("adventure"), "any"), 1, 1);
+
+        assertEquals(List.of("Dune"), result.list().stream().map(BookResponseDto::title).toList());
+        assertEquals(2, result.totalPages());
+        assertEquals(List.of("adventure", "romance", "science fiction"), List.copyOf(result.genres().keySet()));
+        assertEquals(2L, result.genres().get("adventure"));
+        assertEquals(Map.of(1819, 1L, 1965, 1L), result.years());
+    }
+
     @Test
     void getList_searchByAuthor() {
         Author a2 = authorRepository.save(
@@ -201,27 +373,29 @@ class BookServiceIntegrationTest {
                 .yearPublished(2001).genres(new ArrayList<>()).build());
 
         PaginatedResponseDto<BookResponseDto> page =
-                bookService.getList(a2.getId(), null, null, 1, 20);
+                bookService.getList(a2.getId(), null, null, GenreFilter.NONE, 1, 20);
 
         assertEquals(1, page.list().size());
         assertEquals("A2", page.list().get(0).title());
     }
 
     @Test
-    void generateCsvReport_success() throws IOException {
+    void writeCsvReport_success() throws IOException {
         bookRepository.save(Book.builder().title("CSVBook").author(savedAuthor)
                 .yearPublished(2000)
                 .genres(new ArrayList<>(List.of("A","B"))).build());
 
-        byte[] data = bookService.generateCsvReport(null, null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookService.writeCsvReport(null, null, null, GenreFilter.NONE, out);
 
-        String csv = new String(data, StandardCharsets.UTF_8);
+        String csv = out.toString(StandardCharsets.UTF_8);
 
         assertTrue(csv.contains("CSVBook"));
         assertTrue(csv.contains("A|B"));
     }
 
     @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     void uploadFromJson_successAndFailedMix() throws Exception {
         BookRequestDto[] items = {
                 new BookRequestDto("Good", savedAuthor.getId(), 2000,
@@ -241,6 +415,249 @@ class BookServiceIntegrationTest {
         assertEquals(1, resp.failedCount());
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void uploadFromJson_spansSeveralChunks() throws Exception {
+        List<BookRequestDto> items = new ArrayList<>();
+        for (int i = 0; i < 1_200; i++) {
+            Long authorId = i % 100 == 0 ? 999L : savedAuthor.getId();
+            items.add(new BookRequestDto("Chunked " + i, authorId, 2000, List.of("X")));
+        }
+
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "data.json", MediaType.APPLICATION_JSON_VALUE, objectMapper.writeValueAsBytes(items)
+        );
+
+        UploadResponseDto resp = bookService.uploadFromJson(file);
+
+        assertEquals(1_188, resp.successCount());
+        assertEquals(12, resp.failedCount());
+        assertEquals(1_188, bookRepository.count());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void uploadFromJson_resolvesManyAuthors() throws Exception {
+        List<Author> authors = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            authors.add(authorRepository.save(Author.builder().name("Author " + i).build()));
+        }
+        List<BookRequestDto> items = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            items.add(new BookRequestDto("Book " + i, authors.get(i % authors.size()).getId(), 2001, List.of()));
+        }
+        items.add(new BookRequestDto("Unknown author", 999_999L, 2001, List.of()));
+        items.add(new BookRequestDto("No author", null, 2001, List.of()));
+
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "data.json", MediaType.APPLICATION_JSON_VALUE, objectMapper.writeValueAsBytes(items)
+        );
+
+        UploadResponseDto resp = bookService.uploadFromJson(file);
+
+        assertEquals(600, resp.successCount());
+        assertEquals(2, resp.failedCount());
+        Author last = authors.get(authors.size() - 1);
+        assertEquals(4, bookRepository.findAll().stream()
+                .filter(book -> book.getAuthor().getId().equals(last.getId()))
+                .count());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void uploadFromJson_failingBookOnlyRetriesItsChunk() throws Exception {
+        List<BookRequestDto> items = new ArrayList<>();
+        for (int i = 0; i < 1_200; i++) {
+            String title = i == 700 ? null : "Isolated " + i;
+            items.add(new BookRequestDto(title, savedAuthor.getId(), 2000, List.of("X")));
+        }
+
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "data.json", MediaType.APPLICATION_JSON_VALUE, objectMapper.writeValueAsBytes(items)
+        );
+
+        UploadResponseDto resp = bookService.uploadFromJson(file);
+
+        assertEquals(1_199, resp.successCount());
+        assertEquals(1, resp.failedCount());
+        assertEquals(1_199, bookRepository.count());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void uploadFromJson_parallel() throws Exception {
+        List<BookRequestDto> items = new ArrayList<>();
+        for (int i = 0; i < 2_600; i++) {
+            Long authorId = i % 500 == 0 ? 999L : savedAuthor.getId();
+            items.add(new BookRequestDto("Parallel " + i, authorId, 2000, List.of("X", "Y")));
+        }
+
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "data.json", MediaType.APPLICATION_JSON_VALUE, objectMapper.writeValueAsBytes(items)
+        );
+
+        UploadResponseDto resp = bookService.uploadFromJson(file, new ImportOptions(true, ImportMode.JPA));
+
+        assertEquals(2_594, resp.successCount());
+        assertEquals(6, resp.failedCount());
+        assertEquals(2_594, bookRepository.count());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void uploadFromJson_copyModeFallsBackToInsertsOnH2() throws Exception {
+        List<BookRequestDto> items = List.of(
+                new BookRequestDto("Copied", savedAuthor.getId(), 2001, List.of("A", "B")),
+                new BookRequestDto("Orphan", 999L, 2002, List.of())
+        );
+
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "data.json", MediaType.APPLICATION_JSON_VALUE, objectMapper.writeValueAsBytes(items)
+        );
+
+        UploadResponseDto resp = bookService.uploadFromJson(file, new ImportOptions(false, ImportMode.COPY));
+
+        assertEquals(1, resp.successCount());
+        assertEquals(1, resp.failedCount());
+        assertEquals(1, bookRepository.count());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void uploadFromJson_upsertOnlyWritesChangedBooks() throws Exception {
+        ImportOptions upsert = new ImportOptions(false, ImportMode.UPSERT);
+        List<BookRequestDto> items = List.of(
+                new BookRequestDto("Same", savedAuthor.getId(), 2001, List.of("A")),
+                new BookRequestDto("Changed", savedAuthor.getId(), 2002, List.of("B"))
+        );
+        bookService.uploadFromJson(new MockMultipartFile(
+                "file", "data.json", MediaType.APPLICATION_JSON_VALUE, objectMapper.writeValueAsBytes(items)), upsert);
+
+        List<BookRequestDto> rerun = List.of(
+                new BookRequestDto("Same", savedAuthor.getId(), 2001, List.of("A")),
+                new BookRequestDto(" CHANGED ", savedAuthor.getId(), 2002, List.of("B", "C")),
+                new BookRequestDto("New", savedAuthor.getId(), 2003, List.of())
+        );
+        UploadResponseDto resp = bookService.uploadFromJson(new MockMultipartFile(
+                "file", "data.json", MediaType.APPLICATION_JSON_VALUE, objectMapper.writeValueAsBytes(rerun)), upsert);
+
+        assertEquals(3, resp.successCount());
+        assertEquals(1, resp.insertedCount());
+        assertEquals(1, resp.updatedCount());
+        assertEquals(1, resp.unchangedCount());
+        assertEquals(3, bookRepository.count());
+        Book changed = bookRepository.findAll().stream()
+                .filter(book -> book.getTitleKey().equals("changed"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(List.of("B", "C"), genresOf(changed.getId()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void uploadFromJson_ndjson() throws Exception {
+        String ndjson = objectMapper.writeValueAsString(new BookRequestDto("Line 1", savedAuthor.getId(), 2001, List.of("A")))
+                + "\n"
+                + objectMapper.writeValueAsString(new BookRequestDto("Line 2", 999L, 2002, List.of()))
+                + "\n";
+
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "data.ndjson", "application/x-ndjson", ndjson.getBytes(StandardCharsets.UTF_8)
+        );
+
+        UploadResponseDto resp = bookService.uploadFromJson(file);
+
+        assertEquals(1, resp.successCount());
+        assertEquals(1, resp.failedCount());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void uploadFromJson_csvReportRoundTrip() throws Exception {
+        bookService.create(new BookRequestDto("Round, \"Trip\"", savedAuthor.getId(), 1999, List.of("A", "B")));
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        bookService.writeCsvReport(null, null, null, GenreFilter.NONE, report);
+        bookRepository.deleteAll();
+        bookRepository.flush();
+
+        MockMultipartFile file = new MockMultipartFile("file", "books_report.csv", "text/csv", report.toByteArray());
+
+        UploadResponseDto resp = bookService.uploadFromJson(file);
+
+        assertEquals(1, resp.successCount());
+        assertEquals(0, resp.failedCount());
+        Book imported = bookRepository.findAll().get(0);
+        assertEquals("Round, \"Trip\"", imported.getTitle());
+        assertEquals(savedAuthor.getId(), imported.getAuthor().getId());
+        assertEquals(1999, imported.getYearPublished());
+        assertEquals(List.of("A", "B"), genresOf(imported.getId()));
+    }
+
+    @Test
+    void uploadFromJson_csvUnknownAuthor_fails() throws Exception {
+        String csv = "\"Title\",\"Author\",\"Year Published\",\"Genres\"\n\"Lost\",\"Nobody\",\"2000\",\"\"\n";
+
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "books.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8)
+        );
+
+        UploadResponseDto resp = bookService.uploadFromJson(file);
+
+        assertEquals(0, resp.successCount());
+        assertEquals(1, resp.failedCount());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void uploadFromJson_csvBadYear_failsOnlyThatBook() throws Exception {
+        String csv = "\"Title\",\"Author\",\"Year Published\",\"Genres\"\n"
+                + "\"Undated\",\"Main Author\",\"soon\",\"\"\n"
+                + "\"Dated\",\"Main Author\",\"2000\",\"\"\n";
+
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "books.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8)
+        );
+
+        UploadResponseDto resp = bookService.uploadFromJson(file);
+
+        assertEquals(1, resp.successCount());
+        assertEquals(1, resp.failedCount());
+        assertEquals(1, bookRepository.count());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void uploadFromJson_csvWithBrowserContentType_detectedByExtension() throws Exception {
+        String csv = "\"Title\",\"Author\",\"Year Published\",\"Genres\"\n\"Found\",\"Main Author\",\"2000\",\"\"\n";
+
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "books.csv", "application/vnd.ms-excel", csv.getBytes(StandardCharsets.UTF_8)
+        );
+
+        UploadResponseDto resp = bookService.uploadFromJson(file);
+
+        assertEquals(1, resp.successCount());
+    }
+
+    @Test
+    void uploadFromJson_unknownFormat_readAsJson() {
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "books.xml", MediaType.APPLICATION_XML_VALUE, "<books/>".getBytes()
+        );
+
+        assertThrows(ImportFailedException.class, () -> bookService.uploadFromJson(file));
+    }
+
+    @Test
+    void uploadFromJson_notAnArray_throws() {
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "object.json", MediaType.APPLICATION_JSON_VALUE,
+                "{\"title\": \"Single\"}".getBytes()
+        );
+
+        assertThrows(RuntimeException.class, () -> bookService.uploadFromJson(file));
+    }
+
     @Test
     void uploadFromJson_invalidJson_throws() {
         MockMultipartFile file = new MockMultipartFile(
@@ -250,4 +667,25 @@ class BookServiceIntegrationTest {
 
         assertThrows(RuntimeException.class, () -> bookService.uploadFromJson(file));
     }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void uploadFromJson_invalidJsonAfterFirstChunk_reportsImportedBooks() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 500; i++) {
+            json.append("{\"title\": \"Chunked ").append(i).append("\", \"authorId\": ").append(savedAuthor.getId())
+                    .append(", \"yearPublished\": 2020},");
+        }
+        json.append("{ invalid json");
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "partial.json", MediaType.APPLICATION_JSON_VALUE,
+                json.toString().getBytes(StandardCharsets.UTF_8)
+        );
+
+        ImportFailedException e = assertThrows(ImportFailedException.class, () -> bookService.uploadFromJson(file));
+
+        assertTrue(e.getMessage().startsWith("Invalid JSON file at line 1"));
+        assertEquals(500, e.getProgress().successCount());
+        assertEquals(500, bookRepository.count());
+    }
 }
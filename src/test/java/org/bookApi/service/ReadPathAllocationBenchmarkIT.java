@@ -0,0 +1,105 @@
+package org.bookApi.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.bookApi.dto.BookResponseDto;
+import org.bookApi.entity.Author;
+import org.bookApi.entity.Book;
+import org.bookApi.mapper.BookMapper;
+import org.bookApi.repository.AuthorRepository;
+import org.bookApi.repository.BookRepository;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the bytes allocated per page of books when reading managed entities and mapping them, as the list
+ * endpoints used to, against reading them straight into responses.
+ * Runs with the integration tests in {@code mvn verify}.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class ReadPathAllocationBenchmarkIT {
+
+    private static final int BOOKS = 2_000;
+    private static final int PAGE_SIZE = 100;
+    private static final int WARMUP = 200;
+    private static final int RUNS = 500;
+
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void projectionAllocatesLessThanEntities() {
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        List<Author> authors = authorRepository.saveAll(List.of(
+                Author.builder().name("Allocation Author 1").build(),
+                Author.builder().name("Allocation Author 2").build()));
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(Book.builder().title("Allocation Book " + i).author(authors.get(i % 2)).yearPublished(2000)
+                    .genres(new ArrayList<>(List.of("Genre " + i % 7, "Shared"))).build());
+        }
+        bookRepository.saveAll(books);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        long entities = bytesPerPage(readOnly, this::readEntities);
+        long projections = bytesPerPage(readOnly,
+                () -> bookRepository.findResponses((root, cq, cb) -> null, BOOKS / 2, PAGE_SIZE));
+        System.out.printf("page of %d books: entities %,d bytes, projections %,d bytes%n",
+                PAGE_SIZE, entities, projections);
+
+        assertThat(projections).isLessThan(entities);
+
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+    }
+
+    private List<BookResponseDto> readEntities() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> cq = cb.createQuery(Book.class);
+        Root<Book> root = cq.from(Book.class);
+        root.fetch("author");
+        cq.orderBy(cb.asc(root.get("title")), cb.asc(root.get("id")));
+        return entityManager.createQuery(cq)
+                .setFirstResult(BOOKS / 2)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList().stream()
+                .map(book -> {
+                    Hibernate.initialize(book.getGenres());
+                    return BookMapper.toDto(book);
+                })
+                .toList();
+    }
+
+    private long bytesPerPage(TransactionTemplate readOnly, Supplier<List<BookResponseDto>> read) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) {
+            readOnly.executeWithoutResult(status -> assertThat(read.get()).hasSize(PAGE_SIZE));
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < RUNS; i++) {
+            readOnly.executeWithoutResult(status -> assertThat(read.get()).hasSize(PAGE_SIZE));
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / RUNS;
+    }
+}
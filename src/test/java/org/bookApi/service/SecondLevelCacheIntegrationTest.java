@@ -0,0 +1,103 @@
+package org.bookApi.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.bookApi.dto.AuthorRequestDto;
+import org.bookApi.dto.BookRequestDto;
+import org.bookApi.dto.BookResponseDto;
+import org.bookApi.entity.Author;
+import org.bookApi.exception.ResourceNotFoundException;
+import org.bookApi.repository.AuthorRepository;
+import org.bookApi.repository.BookRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Not transactional, since every read has to run in its own session to reach the second-level cache.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private AuthorService authorService;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Author author;
+
+    @BeforeEach
+    void init() {
+        cleanUp();
+        author = authorRepository.save(Author.builder().name("Cached Author").build());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+    }
+
+    @Test
+    void getById_repeated_readsAuthorFromCache() {
+        authorService.getById(author.getId());
+        long queries = statistics.getPrepareStatementCount();
+
+        assertEquals("Cached Author", authorService.getById(author.getId()).name());
+
+        assertEquals(queries, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    void existsByName_repeated_readsQueryCache() {
+        assertTrue(authorRepository.existsByName("Cached Author"));
+        long queries = statistics.getPrepareStatementCount();
+
+        assertTrue(authorRepository.existsByName("Cached Author"));
+        assertTrue(authorRepository.findByName("Cached Author").isPresent());
+        assertTrue(authorRepository.findByName("Cached Author").isPresent());
+
+        assertEquals(queries + 1, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getQueryCacheHitCount() >= 2);
+    }
+
+    @Test
+    void update_refreshesCachedAuthor() {
+        authorService.getById(author.getId());
+
+        authorService.update(author.getId(), new AuthorRequestDto("Renamed Author"));
+
+        assertEquals("Renamed Author", authorService.getById(author.getId()).name());
+        assertFalse(authorRepository.existsByName("Cached Author"));
+    }
+
+    @Test
+    void deleteAuthor_evictsBooksDeletedByTheDatabase() {
+        BookResponseDto book = bookService.create(
+                new BookRequestDto("Cached Book", author.getId(), 2020, new ArrayList<>(List.of("Drama"))));
+        bookService.getById(book.id());
+        bookService.getById(book.id());
+
+        authorService.delete(author.getId());
+
+        assertThrows(ResourceNotFoundException.class, () -> bookService.getById(book.id()));
+    }
+}
@@ -0,0 +1,91 @@
+package org.bookApi.service;
+
+import org.bookApi.dto.BookResponseDto;
+import org.bookApi.dto.SliceResponseDto;
+import org.bookApi.search.GenreFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures title search latency on PostgreSQL while the books table grows to millions of rows.
+ * Run by {@code mvn verify -Pbenchmarks}; needs Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest
+class TitleSearchBenchmarkIT {
+
+    private static final List<Integer> TABLE_SIZES = List.of(10_000, 100_000, 1_000_000, 3_000_000);
+    private static final int RUNS = 25;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void searchLatencyStaysFlat() {
+        jdbcTemplate.update("INSERT INTO authors (id, name) VALUES (nextval('authors_seq'), 'Benchmark Author')");
+        long authorId = jdbcTemplate.queryForObject("SELECT id FROM authors WHERE name = 'Benchmark Author'", Long.class);
+
+        long smallest = 0;
+        int loaded = 0;
+        for (int size : TABLE_SIZES) {
+            jdbcTemplate.update("""
+                    INSERT INTO books (id, title, title_key, year_published, author_id)
+                    SELECT nextval('books_seq'), 'Book ' || md5(n::text), 'book ' || md5(n::text), 2000, ?
+                    FROM generate_series(?, ?) AS n""", authorId, loaded + 1, size);
+            jdbcTemplate.execute("ANALYZE books");
+            loaded = size;
+
+            long median = medianSearchMicros("c4ca4");
+            System.out.printf("title search over %,d books: median %,d us%n", size, median);
+            if (smallest == 0) {
+                smallest = median;
+            }
+            assertThat(median).isLessThan(Math.max(smallest * 5, 20_000));
+        }
+
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN SELECT id FROM books WHERE title_key LIKE '%c4ca4%'", String.class));
+        assertThat(plan).contains("idx_books_title_key_trgm");
+    }
+
+    private long medianSearchMicros(String term) {
+        long[] micros = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            SliceResponseDto<BookResponseDto> page = bookService.getSlice(null, term, null, GenreFilter.NONE, 1, 20);
+            micros[i] = (System.nanoTime() - start) / 1_000;
+            assertThat(page.list()).isNotEmpty();
+        }
+        Arrays.sort(micros);
+        return micros[RUNS / 2];
+    }
+}